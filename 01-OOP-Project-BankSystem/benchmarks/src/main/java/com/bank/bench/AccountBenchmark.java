@@ -0,0 +1,70 @@
+package com.bank.bench;
+
+import com.bank.account.CurrentAccount;
+import com.bank.account.SavingsAccount;
+import com.bank.account.WithdrawalResult;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deposit/withdraw throughput on a per-thread account (no contention) and on
+ * one account shared by every benchmark thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AccountBenchmark {
+
+    @State(Scope.Thread)
+    public static class PrivateAccount {
+        SavingsAccount account;
+
+        @Setup
+        public void setUp() {
+            account = new SavingsAccount("BENCH-PRIVATE", 1_000_000, 5);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        CurrentAccount account;
+
+        @Setup
+        public void setUp() {
+            account = new CurrentAccount("BENCH-SHARED", 1_000_000, 1_000);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WithdrawalResult depositWithdrawSingleThread(PrivateAccount state) {
+        state.account.depositCents(100);
+        return state.account.withdrawCents(100);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public WithdrawalResult depositWithdrawUncontended(PrivateAccount state) {
+        state.account.depositCents(100);
+        return state.account.withdrawCents(100);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public WithdrawalResult depositWithdrawContended(SharedAccount state) {
+        state.account.depositCents(100);
+        return state.account.withdrawCents(100);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.bench;
+
+import com.bank.customer.Customer;
+import com.bank.customer.CustomerDirectory;
+import com.bank.customer.CustomerManager;
+import com.bank.customer.ShardedCustomerManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Random {@code getCustomer} lookups against a populated manager. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CustomerLookupBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    int customers;
+
+    @Param({ "hashmap", "sharded" })
+    String manager;
+
+    CustomerDirectory customerManager;
+    String[] ids;
+
+    @Setup
+    public void setUp() {
+        customerManager = "sharded".equals(manager) ? new ShardedCustomerManager() : new CustomerManager();
+        List<Customer> batch = new ArrayList<>(customers);
+        ids = new String[customers];
+        for (int i = 0; i < customers; i++) {
+            ids[i] = "C" + i;
+            batch.add(new Customer(ids[i], "Customer " + i));
+        }
+        customerManager.addCustomers(batch);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Customer lookup(Cursor cursor) {
+        return customerManager.getCustomer(ids[cursor.random.nextInt(ids.length)]);
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.bench;
+
+import com.bank.transaction.ColumnarTransactionStore;
+import com.bank.transaction.InMemoryTransactionStore;
+import com.bank.transaction.JournalTransactionStore;
+import com.bank.transaction.Transaction;
+import com.bank.transaction.TransactionManager;
+import com.bank.transaction.TransactionStore;
+import com.bank.transaction.TransactionType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Append cost and full-history scan cost (what {@code listTransactions} does,
+ * minus the printing) for each transaction store.
+ *
+ * The store is rebuilt with exactly {@code history} transactions before every
+ * iteration, so {@code append} does not measure an ever-growing store whose
+ * size depends on how fast earlier iterations ran.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionBenchmark {
+
+    @Param({ "memory", "columnar", "journal" })
+    String store;
+
+    @Param({ "10000", "1000000" })
+    int history;
+
+    TransactionManager manager;
+    Transaction[] samples;
+    Path journalDir;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        samples = new Transaction[1024];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new Transaction("S" + random.nextInt(10_000), random.nextLong(1, 1_000_000),
+                    random.nextBoolean() ? TransactionType.DEPOSIT : TransactionType.WITHDRAW);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fillStore() throws IOException {
+        manager = new TransactionManager(newStore());
+        for (int i = 0; i < history; i++) {
+            manager.addTransaction(samples[i & (samples.length - 1)]);
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStore() throws IOException {
+        manager.getStore().close();
+        if (journalDir != null) {
+            try (Stream<Path> files = Files.walk(journalDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+            journalDir = null;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void append() {
+        manager.addTransaction(samples[next++ & (samples.length - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void scan(Blackhole blackhole) {
+        manager.getStore().forEach(blackhole::consume);
+    }
+
+    private TransactionStore newStore() throws IOException {
+        switch (store) {
+            case "columnar":
+                return new ColumnarTransactionStore();
+            case "journal":
+                journalDir = Files.createTempDirectory("bank-journal-bench");
+                return new JournalTransactionStore(journalDir);
+            default:
+                return new InMemoryTransactionStore();
+        }
+    }
+}
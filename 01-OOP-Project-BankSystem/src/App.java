@@ -1,5 +1,7 @@
+import com.bank.account.AsyncLoggingAccountListener;
 import com.bank.account.SavingsAccount;
 import com.bank.account.CurrentAccount;
+import com.bank.customer.AccountRegistry;
 import com.bank.customer.Customer;
 import com.bank.customer.CustomerManager;
 import com.bank.transaction.Transaction;
@@ -9,11 +11,12 @@ public class App {
     public static void main(String[] args) {
         CustomerManager customerManager = new CustomerManager();
         TransactionManager transactionManager = new TransactionManager();
+        AccountRegistry registry = new AccountRegistry();
 
         // Create Customers
-        Customer c1 = new Customer("C001", "Alice");
-        Customer c2 = new Customer("C002", "Bob");
-        Customer c3 = new Customer("C003", "Alex");
+        Customer c1 = new Customer("C001", "Alice", registry);
+        Customer c2 = new Customer("C002", "Bob", registry);
+        Customer c3 = new Customer("C003", "Alex", registry);
 
 
         // Add Accounts
@@ -27,15 +30,21 @@ public class App {
         customerManager.addCustomer(c3);
 
 
+        // Log account events off the posting thread
+        AsyncLoggingAccountListener logger = new AsyncLoggingAccountListener(System.out);
+        registry.entries().forEach(entry -> entry.getAccount().setEventListener(logger));
+
         // Transactions
-        SavingsAccount aliceAcc = (SavingsAccount) c1.getAccounts().get(0);
+        SavingsAccount aliceAcc = (SavingsAccount) registry.findAccount("S001");
         aliceAcc.deposit(500);
         transactionManager.addTransaction(new Transaction(aliceAcc.getAccountNumber(), 500, "Deposit"));
 
-        CurrentAccount bobAcc = (CurrentAccount) c2.getAccounts().get(0);
+        CurrentAccount bobAcc = (CurrentAccount) registry.findAccount("C001");
         bobAcc.withdraw(2500);
         transactionManager.addTransaction(new Transaction(bobAcc.getAccountNumber(), 2500, "Withdraw"));
 
+        logger.close();
+
         // List
         customerManager.listCustomers();
         transactionManager.listTransactions();
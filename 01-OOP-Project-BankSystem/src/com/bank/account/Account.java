@@ -1,12 +1,29 @@
 package com.bank.account;
 
+import com.bank.utils.Money;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongUnaryOperator;
+
 public abstract class Account {
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balanceCents", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     protected String accountNumber;
-    protected double balance;
+    // Balance in cents; only ever updated through BALANCE so concurrent postings never lose updates.
+    private volatile long balanceCents;
+    private volatile AccountEventListener listener = AccountEventListener.NO_OP;
 
     public Account(String accountNumber, double balance) {
         this.accountNumber = accountNumber;
-        this.balance = balance;
+        this.balanceCents = Money.toCents(balance);
     }
 
     public String getAccountNumber() {
@@ -14,13 +31,76 @@ public abstract class Account {
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toAmount(balanceCents);
+    }
+
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+
+    public void setEventListener(AccountEventListener listener) {
+        this.listener = listener == null ? AccountEventListener.NO_OP : listener;
+    }
+
+    protected AccountEventListener getEventListener() {
+        return listener;
     }
 
     public void deposit(double amount) {
-        balance += amount;
-        System.out.println("Deposited " + amount + ". New balance: " + balance);
+        depositCents(Money.toCents(amount));
+    }
+
+    /** Adds the given cents to the balance and returns the new balance. */
+    public long depositCents(long amountCents) {
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Deposit amount must not be negative: " + amountCents);
+        }
+        long newBalance = (long) BALANCE.getAndAdd(this, amountCents) + amountCents;
+        listener.onDeposit(this, amountCents, newBalance);
+        return newBalance;
+    }
+
+    public WithdrawalResult withdraw(double amount) {
+        return withdrawCents(Money.toCents(amount));
     }
 
-    public abstract void withdraw(double amount);
+    /** Debits the given cents if the account rules allow it. */
+    public abstract WithdrawalResult withdrawCents(long amountCents);
+
+    /**
+     * Debits the given cents if the balance stays at or above {@code floorCents},
+     * otherwise reports {@code refusal}.
+     */
+    protected final WithdrawalResult debit(long amountCents, long floorCents, WithdrawalResult refusal) {
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Withdrawal amount must not be negative: " + amountCents);
+        }
+        long current = balanceCents;
+        while (true) {
+            long next = current - amountCents;
+            if (next < floorCents) {
+                listener.onWithdrawRejected(this, amountCents, refusal);
+                return refusal;
+            }
+            long witness = (long) BALANCE.compareAndExchange(this, current, next);
+            if (witness == current) {
+                listener.onWithdraw(this, amountCents, next);
+                return WithdrawalResult.SUCCESS;
+            }
+            current = witness;
+        }
+    }
+
+    /** Atomically replaces the balance with {@code update(balance)} and returns the previous balance. */
+    protected final long getAndUpdateBalance(LongUnaryOperator update) {
+        long current = balanceCents;
+        while (true) {
+            long next = update.applyAsLong(current);
+            long witness = (long) BALANCE.compareAndExchange(this, current, next);
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.bank.account;
+
+/**
+ * Receives balance events from {@link Account}. Callbacks run on the posting
+ * thread, so implementations must be thread-safe and should return quickly;
+ * anything slow (formatting, I/O) belongs on another thread.
+ */
+public interface AccountEventListener {
+
+    /** Listener that ignores every event; the default for new accounts. */
+    AccountEventListener NO_OP = new AccountEventListener() {
+    };
+
+    default void onDeposit(Account account, long amountCents, long newBalanceCents) {
+    }
+
+    default void onWithdraw(Account account, long amountCents, long newBalanceCents) {
+    }
+
+    default void onWithdrawRejected(Account account, long amountCents, WithdrawalResult result) {
+    }
+
+    default void onInterest(Account account, long creditedCents, long newBalanceCents) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.bank.account;
+
+import com.bank.utils.Money;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs account events from a background thread. Posting threads only copy the
+ * event's primitives into a preallocated ring buffer, so the hot path neither
+ * allocates nor touches the output stream's lock. The writer thread formats
+ * whatever has accumulated and prints it as one batch.
+ *
+ * When the ring is full new events are dropped and counted rather than
+ * blocking the poster; see {@link #getDroppedEvents()}.
+ */
+public class AsyncLoggingAccountListener implements AccountEventListener, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final byte DEPOSIT = 1;
+    private static final byte WITHDRAW = 2;
+    private static final byte INSUFFICIENT_FUNDS = 3;
+    private static final byte OVERDRAFT_EXCEEDED = 4;
+    private static final byte INTEREST = 5;
+
+    private final PrintStream out;
+    private final int mask;
+    private final Account[] accounts;
+    private final byte[] kinds;
+    private final long[] amounts;
+    private final long[] balances;
+    // published[i] holds the sequence whose data is ready in slot i.
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long consumed;
+    private volatile boolean running = true;
+    private final Thread writer;
+
+    public AsyncLoggingAccountListener(PrintStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /** Creates the listener with a ring of {@code capacity} slots, rounded up to a power of two. */
+    public AsyncLoggingAccountListener(PrintStream out, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.out = out;
+        this.mask = size - 1;
+        this.accounts = new Account[size];
+        this.kinds = new byte[size];
+        this.amounts = new long[size];
+        this.balances = new long[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        writer = new Thread(this::drainLoop, "account-event-logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void onDeposit(Account account, long amountCents, long newBalanceCents) {
+        publish(account, DEPOSIT, amountCents, newBalanceCents);
+    }
+
+    @Override
+    public void onWithdraw(Account account, long amountCents, long newBalanceCents) {
+        publish(account, WITHDRAW, amountCents, newBalanceCents);
+    }
+
+    @Override
+    public void onWithdrawRejected(Account account, long amountCents, WithdrawalResult result) {
+        byte kind = result == WithdrawalResult.OVERDRAFT_EXCEEDED ? OVERDRAFT_EXCEEDED : INSUFFICIENT_FUNDS;
+        publish(account, kind, amountCents, 0);
+    }
+
+    @Override
+    public void onInterest(Account account, long creditedCents, long newBalanceCents) {
+        publish(account, INTEREST, creditedCents, newBalanceCents);
+    }
+
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    /** Stops the writer after it has printed every event published so far. */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(Account account, byte kind, long amount, long balance) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        accounts[slot] = account;
+        kinds[slot] = kind;
+        amounts[slot] = amount;
+        balances[slot] = balance;
+        published.set(slot, sequence);
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            boolean stopping = !running;
+            long next = consumed;
+            int slot = (int) next & mask;
+            while (published.get(slot) == next) {
+                format(batch, slot);
+                accounts[slot] = null;
+                next++;
+                slot = (int) next & mask;
+            }
+            if (next != consumed) {
+                consumed = next;
+                out.print(batch);
+                out.flush();
+                batch.setLength(0);
+            } else if (stopping) {
+                return;
+            } else {
+                LockSupport.parkNanos(1_000_000);
+            }
+        }
+    }
+
+    private void format(StringBuilder batch, int slot) {
+        switch (kinds[slot]) {
+            case DEPOSIT:
+                batch.append("Deposited ").append(Money.toAmount(amounts[slot]))
+                        .append(". New balance: ").append(Money.toAmount(balances[slot]));
+                break;
+            case WITHDRAW:
+                batch.append("Withdrawn ").append(Money.toAmount(amounts[slot]))
+                        .append(". New balance: ").append(Money.toAmount(balances[slot]));
+                break;
+            case INSUFFICIENT_FUNDS:
+                batch.append("Insufficient funds!");
+                break;
+            case OVERDRAFT_EXCEEDED:
+                batch.append("Exceeded overdraft limit!");
+                break;
+            case INTEREST:
+                batch.append("Interest added. New balance: ").append(Money.toAmount(balances[slot]));
+                break;
+            default:
+                break;
+        }
+        batch.append(" [").append(accounts[slot].getAccountNumber()).append(']').append(System.lineSeparator());
+    }
+}
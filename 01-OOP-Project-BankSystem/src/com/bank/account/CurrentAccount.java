@@ -1,20 +1,23 @@
 package com.bank.account;
 
+import com.bank.utils.Money;
+
 public class CurrentAccount extends Account {
     private double overdraftLimit;
+    private final long overdraftLimitCents;
 
     public CurrentAccount(String accountNumber, double balance, double overdraftLimit) {
         super(accountNumber, balance);
         this.overdraftLimit = overdraftLimit;
+        this.overdraftLimitCents = Money.toCents(overdraftLimit);
     }
 
     @Override
-    public void withdraw(double amount) {
-        if(amount <= balance + overdraftLimit) {
-            balance -= amount;
-            System.out.println("Withdrawn " + amount + ". New balance: " + balance);
-        } else {
-            System.out.println("Exceeded overdraft limit!");
-        }
+    public WithdrawalResult withdrawCents(long amountCents) {
+        return debit(amountCents, -overdraftLimitCents, WithdrawalResult.OVERDRAFT_EXCEEDED);
+    }
+
+    public double getOverdraftLimit() {
+        return overdraftLimit;
     }
-}
\ No newline at end of file
+}
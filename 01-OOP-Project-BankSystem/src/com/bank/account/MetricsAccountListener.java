@@ -0,0 +1,81 @@
+package com.bank.account;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counts account events with striped counters; cheap enough for the posting path. */
+public class MetricsAccountListener implements AccountEventListener {
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder depositedCents = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder withdrawnCents = new LongAdder();
+    private final LongAdder insufficientFunds = new LongAdder();
+    private final LongAdder overdraftExceeded = new LongAdder();
+    private final LongAdder interestCredits = new LongAdder();
+    private final LongAdder interestCents = new LongAdder();
+
+    @Override
+    public void onDeposit(Account account, long amountCents, long newBalanceCents) {
+        deposits.increment();
+        depositedCents.add(amountCents);
+    }
+
+    @Override
+    public void onWithdraw(Account account, long amountCents, long newBalanceCents) {
+        withdrawals.increment();
+        withdrawnCents.add(amountCents);
+    }
+
+    @Override
+    public void onWithdrawRejected(Account account, long amountCents, WithdrawalResult result) {
+        if (result == WithdrawalResult.OVERDRAFT_EXCEEDED) {
+            overdraftExceeded.increment();
+        } else {
+            insufficientFunds.increment();
+        }
+    }
+
+    @Override
+    public void onInterest(Account account, long creditedCents, long newBalanceCents) {
+        interestCredits.increment();
+        interestCents.add(creditedCents);
+    }
+
+    public long getDeposits() {
+        return deposits.sum();
+    }
+
+    public long getDepositedCents() {
+        return depositedCents.sum();
+    }
+
+    public long getWithdrawals() {
+        return withdrawals.sum();
+    }
+
+    public long getWithdrawnCents() {
+        return withdrawnCents.sum();
+    }
+
+    public long getInsufficientFunds() {
+        return insufficientFunds.sum();
+    }
+
+    public long getOverdraftExceeded() {
+        return overdraftExceeded.sum();
+    }
+
+    public long getInterestCredits() {
+        return interestCredits.sum();
+    }
+
+    public long getInterestCents() {
+        return interestCents.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "deposits=" + getDeposits() + ", withdrawals=" + getWithdrawals()
+                + ", insufficientFunds=" + getInsufficientFunds() + ", overdraftExceeded=" + getOverdraftExceeded()
+                + ", interestCredits=" + getInterestCredits();
+    }
+}
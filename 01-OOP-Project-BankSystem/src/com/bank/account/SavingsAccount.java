@@ -2,24 +2,37 @@ package com.bank.account;
 
 public class SavingsAccount extends Account {
     private double interestRate;
+    // Interest rate in basis points (5% -> 500) for fixed-point accrual.
+    private final long interestRateBps;
 
     public SavingsAccount(String accountNumber, double balance, double interestRate) {
         super(accountNumber, balance);
         this.interestRate = interestRate;
+        this.interestRateBps = Math.round(interestRate * 100);
     }
 
     @Override
-    public void withdraw(double amount) {
-        if (amount <= balance) {
-            balance -= amount;
-            System.out.println("Withdrawn " + amount + ". New balance: " + balance);
-        } else {
-            System.out.println("Insufficient funds!");
-        }
+    public WithdrawalResult withdrawCents(long amountCents) {
+        return debit(amountCents, 0, WithdrawalResult.INSUFFICIENT_FUNDS);
     }
 
     public void addInterest() {
-        balance += balance * interestRate / 100;
-        System.out.println("Interest added. New balance: " + balance);
+        accrueInterest();
+    }
+
+    /** Applies one period of interest in cents (rounded down) and returns the cents credited. */
+    public long accrueInterest() {
+        long previous = getAndUpdateBalance(balance -> balance + interestOn(balance));
+        long credited = interestOn(previous);
+        getEventListener().onInterest(this, credited, previous + credited);
+        return credited;
+    }
+
+    public double getInterestRate() {
+        return interestRate;
+    }
+
+    private long interestOn(long balanceCents) {
+        return balanceCents > 0 ? balanceCents * interestRateBps / 10_000 : 0;
     }
 }
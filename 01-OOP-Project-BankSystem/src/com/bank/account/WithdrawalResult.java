@@ -0,0 +1,8 @@
+package com.bank.account;
+
+/** Outcome of a withdrawal attempt. */
+public enum WithdrawalResult {
+    SUCCESS,
+    INSUFFICIENT_FUNDS,
+    OVERDRAFT_EXCEEDED
+}
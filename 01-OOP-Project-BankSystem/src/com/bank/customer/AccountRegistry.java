@@ -0,0 +1,68 @@
+package com.bank.customer;
+
+import com.bank.account.Account;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index from account number to {@link Account} and its owning {@link Customer},
+ * so postings can find an account in O(1) instead of scanning customers.
+ * Entries are added by {@link Customer#addAccount(Account)} for customers
+ * created with this registry. Account numbers are unique per registry, so
+ * each bank, or each test, creates its own.
+ */
+public class AccountRegistry {
+    /** An account together with its owner. */
+    public static final class Entry {
+        private final Account account;
+        private final Customer owner;
+
+        Entry(Account account, Customer owner) {
+            this.account = account;
+            this.owner = owner;
+        }
+
+        public Account getAccount() {
+            return account;
+        }
+
+        public Customer getOwner() {
+            return owner;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    void register(Account account, Customer owner) {
+        Entry existing = entries.putIfAbsent(account.getAccountNumber(), new Entry(account, owner));
+        if (existing != null) {
+            throw new IllegalStateException("Account " + account.getAccountNumber()
+                    + " is already registered to customer " + existing.getOwner().getCustomerId());
+        }
+    }
+
+    public Entry find(String accountNumber) {
+        return entries.get(accountNumber);
+    }
+
+    public Account findAccount(String accountNumber) {
+        Entry entry = entries.get(accountNumber);
+        return entry == null ? null : entry.getAccount();
+    }
+
+    public Customer findOwner(String accountNumber) {
+        Entry entry = entries.get(accountNumber);
+        return entry == null ? null : entry.getOwner();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Live, weakly consistent view of all registered entries. */
+    public Collection<Entry> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+}
@@ -1,17 +1,26 @@
 package com.bank.customer;
 
 import com.bank.account.Account;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Customer {
     private String name;
     private String customerId;
-    private List<Account> accounts = new ArrayList<>();
+    private List<Account> accounts = new CopyOnWriteArrayList<>();
+    private final AccountRegistry registry;
 
+    /** Creates a customer whose accounts are not indexed in any {@link AccountRegistry}. */
     public Customer(String customerId, String name) {
+        this(customerId, name, null);
+    }
+
+    /** Creates a customer whose accounts are registered in {@code registry}. */
+    public Customer(String customerId, String name, AccountRegistry registry) {
         this.customerId = customerId;
         this.name = name;
+        this.registry = registry;
     }
 
     public String getName() {
@@ -22,11 +31,16 @@ public class Customer {
         return customerId;
     }
 
+    /** Adds the account and registers it, if there is a registry; fails if the number is already taken there. */
     public void addAccount(Account account) {
+        if (registry != null) {
+            registry.register(account, this);
+        }
         accounts.add(account);
     }
 
+    /** Read-only view; use {@link #addAccount(Account)} so the registry stays in step. */
     public List<Account> getAccounts() {
-        return accounts;
+        return Collections.unmodifiableList(accounts);
     }
 }
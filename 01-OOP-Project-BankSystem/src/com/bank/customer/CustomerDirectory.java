@@ -0,0 +1,32 @@
+package com.bank.customer;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Customers looked up by {@code customerId}. {@link CustomerManager} is the
+ * plain single-threaded implementation; {@link ShardedCustomerManager} is
+ * safe for concurrent use.
+ */
+public interface CustomerDirectory {
+
+    void addCustomer(Customer customer);
+
+    default void addCustomers(Collection<Customer> batch) {
+        for (Customer customer : batch) {
+            addCustomer(customer);
+        }
+    }
+
+    Customer getCustomer(String customerId);
+
+    Iterator<Customer> customerIterator();
+
+    default void listCustomers() {
+        Iterator<Customer> it = customerIterator();
+        while (it.hasNext()) {
+            Customer c = it.next();
+            System.out.println("ID: " + c.getCustomerId() + ", Name: " + c.getName());
+        }
+    }
+}
@@ -1,22 +1,24 @@
 package com.bank.customer;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
-public class CustomerManager {
+public class CustomerManager implements CustomerDirectory {
     private Map<String, Customer> customers = new HashMap<>();
 
+    @Override
     public void addCustomer(Customer customer) {
         customers.put(customer.getCustomerId(), customer);
     }
 
+    @Override
     public Customer getCustomer(String customerId) {
         return customers.get(customerId);
     }
 
-    public void listCustomers() {
-        for (Customer c : customers.values()) {
-            System.out.println("ID: " + c.getCustomerId() + ", Name: " + c.getName());
-        }
+    @Override
+    public Iterator<Customer> customerIterator() {
+        return customers.values().iterator();
     }
 }
@@ -0,0 +1,38 @@
+package com.bank.customer;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe {@link CustomerDirectory} backed by one {@link ConcurrentHashMap}.
+ *
+ * The map already shards internally: each hash bin is locked on its own, so
+ * a write only contends with writes to the same bin and reads never lock.
+ * Onboarding therefore proceeds in parallel without an extra shard array on
+ * top. Iteration is weakly consistent: it never throws
+ * ConcurrentModificationException and may or may not reflect customers added
+ * while it runs.
+ */
+public class ShardedCustomerManager implements CustomerDirectory {
+    private final Map<String, Customer> customers = new ConcurrentHashMap<>();
+
+    @Override
+    public void addCustomer(Customer customer) {
+        customers.put(customer.getCustomerId(), customer);
+    }
+
+    @Override
+    public Customer getCustomer(String customerId) {
+        return customers.get(customerId);
+    }
+
+    public int size() {
+        return customers.size();
+    }
+
+    @Override
+    public Iterator<Customer> customerIterator() {
+        return customers.values().iterator();
+    }
+}
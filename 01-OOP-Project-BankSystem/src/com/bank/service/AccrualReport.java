@@ -0,0 +1,38 @@
+package com.bank.service;
+
+import com.bank.utils.Money;
+
+/** Summary of one {@link InterestAccrualJob} run. */
+public class AccrualReport {
+    private final int accounts;
+    private final long interestCents;
+    private final long elapsedNanos;
+
+    AccrualReport(int accounts, long interestCents, long elapsedNanos) {
+        this.accounts = accounts;
+        this.interestCents = interestCents;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public long getInterestCents() {
+        return interestCents;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getAccountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : accounts * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Accrued %.2f interest on %d accounts in %.1f ms (%.0f accounts/s)",
+                Money.toAmount(interestCents), accounts, elapsedNanos / 1_000_000.0, getAccountsPerSecond());
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.service;
+
+import com.bank.account.Account;
+import com.bank.account.SavingsAccount;
+import com.bank.customer.AccountRegistry;
+import com.bank.transaction.Transaction;
+import com.bank.transaction.TransactionManager;
+import com.bank.transaction.TransactionType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Month-end interest run: splits the savings accounts with fork/join, applies
+ * fixed-point interest to each with {@link SavingsAccount#accrueInterest()} and
+ * records an Interest transaction per credited account, one batch per leaf.
+ */
+public class InterestAccrualJob {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final TransactionManager transactionManager;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    public InterestAccrualJob(TransactionManager transactionManager) {
+        this(transactionManager, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    public InterestAccrualJob(TransactionManager transactionManager, ForkJoinPool pool, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.transactionManager = transactionManager;
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    /** Accrues interest on every savings account in the registry. */
+    public AccrualReport run(AccountRegistry registry) {
+        List<SavingsAccount> accounts = new ArrayList<>(registry.size());
+        for (AccountRegistry.Entry entry : registry.entries()) {
+            Account account = entry.getAccount();
+            if (account instanceof SavingsAccount) {
+                accounts.add((SavingsAccount) account);
+            }
+        }
+        return run(accounts);
+    }
+
+    public AccrualReport run(List<SavingsAccount> accounts) {
+        long start = System.nanoTime();
+        long interest = pool.invoke(new AccrualTask(accounts, 0, accounts.size()));
+        return new AccrualReport(accounts.size(), interest, System.nanoTime() - start);
+    }
+
+    private final class AccrualTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SavingsAccount> accounts;
+        private final int from;
+        private final int to;
+
+        AccrualTask(List<SavingsAccount> accounts, int from, int to) {
+            this.accounts = accounts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= batchSize) {
+                return accrue();
+            }
+            int mid = (from + to) >>> 1;
+            AccrualTask left = new AccrualTask(accounts, from, mid);
+            left.fork();
+            long right = new AccrualTask(accounts, mid, to).compute();
+            return right + left.join();
+        }
+
+        private long accrue() {
+            List<Transaction> batch = new ArrayList<>(to - from);
+            long total = 0;
+            for (int i = from; i < to; i++) {
+                SavingsAccount account = accounts.get(i);
+                long credited = account.accrueInterest();
+                if (credited != 0) {
+                    batch.add(new Transaction(account.getAccountNumber(), credited, TransactionType.INTEREST));
+                    total += credited;
+                }
+            }
+            if (!batch.isEmpty()) {
+                transactionManager.addTransactions(batch);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bank.service;
+
+/** A request to move money between two accounts, identified by account number. */
+public class Transfer {
+    private final String fromAccount;
+    private final String toAccount;
+    private final long amountCents;
+
+    public Transfer(String fromAccount, String toAccount, long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amountCents);
+        }
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amountCents = amountCents;
+    }
+
+    public String getFromAccount() {
+        return fromAccount;
+    }
+
+    public String getToAccount() {
+        return toAccount;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    @Override
+    public String toString() {
+        return fromAccount + " -> " + toAccount + " : " + amountCents;
+    }
+}
@@ -0,0 +1,86 @@
+package com.bank.service;
+
+import com.bank.account.Account;
+import com.bank.account.WithdrawalResult;
+import com.bank.customer.AccountRegistry;
+import com.bank.transaction.Transaction;
+import com.bank.transaction.TransactionManager;
+import com.bank.transaction.TransactionType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Runs batches of transfers across cores.
+ *
+ * Each transfer locks its two accounts, always in account-number order so
+ * that opposing transfers cannot deadlock, then debits the source, which
+ * either succeeds or is refused by the account's own rules, and credits the
+ * target. Under those locks no other transfer sees the money in flight, so a
+ * reader that takes the same locks in the same order sees both balances
+ * either before or after the whole transfer. Transfers between unrelated
+ * accounts still run in parallel, and plain deposits and withdrawals stay
+ * lock-free. The paired Transfer Out/Transfer In entries for the whole batch
+ * are written with one {@link TransactionManager#addTransactions} call.
+ */
+public class TransferEngine {
+    private final AccountRegistry registry;
+    private final TransactionManager transactionManager;
+
+    public TransferEngine(AccountRegistry registry, TransactionManager transactionManager) {
+        this.registry = registry;
+        this.transactionManager = transactionManager;
+    }
+
+    /** Executes the batch in parallel and returns one status per transfer, in input order. */
+    public TransferStatus[] execute(List<Transfer> batch) {
+        int size = batch.size();
+        TransferStatus[] statuses = new TransferStatus[size];
+        Transaction[] entries = new Transaction[size * 2];
+        IntStream.range(0, size).parallel().forEach(i -> statuses[i] = apply(batch.get(i), entries, i * 2));
+
+        List<Transaction> journal = new ArrayList<>(entries.length);
+        for (Transaction entry : entries) {
+            if (entry != null) {
+                journal.add(entry);
+            }
+        }
+        transactionManager.addTransactions(journal);
+        return statuses;
+    }
+
+    private TransferStatus apply(Transfer transfer, Transaction[] entries, int slot) {
+        if (transfer.getFromAccount().equals(transfer.getToAccount())) {
+            return TransferStatus.SAME_ACCOUNT;
+        }
+        Account from = registry.findAccount(transfer.getFromAccount());
+        Account to = registry.findAccount(transfer.getToAccount());
+        if (from == null || to == null) {
+            return TransferStatus.UNKNOWN_ACCOUNT;
+        }
+        long amount = transfer.getAmountCents();
+        Transaction out = new Transaction(from.getAccountNumber(), amount, TransactionType.TRANSFER_OUT);
+        Transaction in = new Transaction(to.getAccountNumber(), amount, TransactionType.TRANSFER_IN);
+        try {
+            // Checked before any balance moves, so the batch append cannot fail after the money has.
+            transactionManager.validate(out);
+            transactionManager.validate(in);
+        } catch (IllegalArgumentException e) {
+            return TransferStatus.NOT_RECORDABLE;
+        }
+        boolean fromFirst = from.getAccountNumber().compareTo(to.getAccountNumber()) < 0;
+        Account first = fromFirst ? from : to;
+        Account second = fromFirst ? to : from;
+        synchronized (first) {
+            synchronized (second) {
+                if (from.withdrawCents(amount) != WithdrawalResult.SUCCESS) {
+                    return TransferStatus.INSUFFICIENT_FUNDS;
+                }
+                to.depositCents(amount);
+            }
+        }
+        entries[slot] = out;
+        entries[slot + 1] = in;
+        return TransferStatus.COMPLETED;
+    }
+}
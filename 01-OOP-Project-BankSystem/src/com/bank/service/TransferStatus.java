@@ -0,0 +1,11 @@
+package com.bank.service;
+
+/** Outcome of a single {@link Transfer} within a batch. */
+public enum TransferStatus {
+    COMPLETED,
+    UNKNOWN_ACCOUNT,
+    SAME_ACCOUNT,
+    INSUFFICIENT_FUNDS,
+    /** The transaction store cannot record the transfer, e.g. an account number too long for the journal. */
+    NOT_RECORDABLE
+}
@@ -0,0 +1,195 @@
+package com.bank.transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps transactions as parallel primitive columns instead of objects. Account
+ * numbers are dictionary-encoded to int ids, so a row costs 21 bytes
+ * (amount, timestamp, account id, type code) plus the shared dictionary.
+ *
+ * The scan and aggregate methods walk the columns directly and do not allocate
+ * per row.
+ */
+public class ColumnarTransactionStore implements TransactionStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+    // TransactionType.getSign() by type code, so the aggregates stay on primitives.
+    private static final long[] SIGN_BY_CODE = new long[Byte.MAX_VALUE + 1];
+
+    static {
+        for (TransactionType type : TransactionType.values()) {
+            SIGN_BY_CODE[type.getCode()] = type.getSign();
+        }
+    }
+
+    /** Receives one row of a scan as primitives. */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int accountId, long amountCents, byte typeCode, long epochNanos);
+    }
+
+    private final Map<String, Integer> accountIds = new HashMap<>();
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    private long[] amountCents;
+    private long[] epochNanos;
+    private int[] accountColumn;
+    private byte[] typeColumn;
+    private int size;
+
+    public ColumnarTransactionStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColumnarTransactionStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        amountCents = new long[capacity];
+        epochNanos = new long[capacity];
+        accountColumn = new int[capacity];
+        typeColumn = new byte[capacity];
+    }
+
+    @Override
+    public synchronized long append(Transaction transaction) {
+        if (size == amountCents.length) {
+            grow();
+        }
+        amountCents[size] = transaction.getAmountCents();
+        epochNanos[size] = transaction.getEpochNanos();
+        accountColumn[size] = encodeAccount(transaction.getAccountNumber());
+        typeColumn[size] = transaction.getType().getCode();
+        return size++;
+    }
+
+    @Override
+    public synchronized long appendAll(Collection<Transaction> transactions) {
+        long first = size();
+        for (Transaction transaction : transactions) {
+            append(transaction);
+        }
+        return first;
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized Transaction get(long row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return materialize((int) row);
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<Transaction> action) {
+        for (int row = 0; row < size; row++) {
+            action.accept(materialize(row));
+        }
+    }
+
+    /** Returns the dictionary id of an account number, or -1 if it has no transactions. */
+    public synchronized int accountId(String accountNumber) {
+        Integer id = accountIds.get(accountNumber);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized String accountNumber(int accountId) {
+        return accountNumbers.get(accountId);
+    }
+
+    /**
+     * Net amount posted to the account, in cents: each amount is signed by
+     * {@link TransactionType#getSign()}, so deposits, incoming transfers and
+     * interest add while withdrawals and outgoing transfers subtract.
+     */
+    public synchronized long sumByAccount(String accountNumber) {
+        int id = accountId(accountNumber);
+        if (id < 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            if (accountColumn[row] == id) {
+                sum += SIGN_BY_CODE[typeColumn[row]] * amountCents[row];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Net amount per account id, signed as in {@link #sumByAccount(String)} and
+     * indexed by {@link #accountId(String)}.
+     */
+    public synchronized long[] sumByAccount() {
+        long[] sums = new long[accountNumbers.size()];
+        for (int row = 0; row < size; row++) {
+            sums[accountColumn[row]] += SIGN_BY_CODE[typeColumn[row]] * amountCents[row];
+        }
+        return sums;
+    }
+
+    public synchronized long countByType(TransactionType type) {
+        byte code = type.getCode();
+        long count = 0;
+        for (int row = 0; row < size; row++) {
+            if (typeColumn[row] == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visits every row with {@code fromNanos <= epochNanos < toNanos} in append
+     * order and returns how many rows matched.
+     */
+    public synchronized int scanTimeRange(long fromNanos, long toNanos, RowVisitor visitor) {
+        int matched = 0;
+        for (int row = 0; row < size; row++) {
+            long time = epochNanos[row];
+            if (time >= fromNanos && time < toNanos) {
+                visitor.visit(accountColumn[row], amountCents[row], typeColumn[row], time);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /** Visits every row in append order. */
+    public synchronized void scan(RowVisitor visitor) {
+        for (int row = 0; row < size; row++) {
+            visitor.visit(accountColumn[row], amountCents[row], typeColumn[row], epochNanos[row]);
+        }
+    }
+
+    private int encodeAccount(String accountNumber) {
+        Integer id = accountIds.get(accountNumber);
+        if (id == null) {
+            id = accountNumbers.size();
+            accountIds.put(accountNumber, id);
+            accountNumbers.add(accountNumber);
+        }
+        return id;
+    }
+
+    private Transaction materialize(int row) {
+        return new Transaction(accountNumbers.get(accountColumn[row]), amountCents[row],
+                TransactionType.fromCode(typeColumn[row]), Transaction.fromEpochNanos(epochNanos[row]));
+    }
+
+    private void grow() {
+        int capacity = amountCents.length + (amountCents.length >> 1);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        epochNanos = Arrays.copyOf(epochNanos, capacity);
+        accountColumn = Arrays.copyOf(accountColumn, capacity);
+        typeColumn = Arrays.copyOf(typeColumn, capacity);
+    }
+}
@@ -0,0 +1,39 @@
+package com.bank.transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/** Keeps every transaction on the heap; the default store. */
+public class InMemoryTransactionStore implements TransactionStore {
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    @Override
+    public synchronized long append(Transaction transaction) {
+        transactions.add(transaction);
+        return transactions.size() - 1;
+    }
+
+    @Override
+    public synchronized long appendAll(Collection<Transaction> batch) {
+        long first = transactions.size();
+        transactions.addAll(batch);
+        return first;
+    }
+
+    @Override
+    public synchronized long size() {
+        return transactions.size();
+    }
+
+    @Override
+    public synchronized Transaction get(long row) {
+        return transactions.get(Math.toIntExact(row));
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<Transaction> action) {
+        transactions.forEach(action);
+    }
+}
@@ -0,0 +1,323 @@
+package com.bank.transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of fixed-width binary records in memory-mapped segment
+ * files. Only the segment being written is kept mapped, so the heap footprint
+ * stays flat no matter how long the history gets.
+ *
+ * Record layout (40 bytes):
+ * <pre>
+ *  0  type code (0 marks an unused slot)
+ *  1  account number length
+ *  2  account number, US-ASCII, zero padded to 22 bytes
+ * 24  amount in cents
+ * 32  timestamp in epoch nanos
+ * </pre>
+ * The type code is written last so a half-written record is never replayed.
+ */
+public class JournalTransactionStore implements TransactionStore {
+    static final int RECORD_SIZE = 40;
+    static final int MAX_ACCOUNT_LENGTH = 22;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final int ACCOUNT_OFFSET = 2;
+    private static final int AMOUNT_OFFSET = 24;
+    private static final int TIME_OFFSET = 32;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long segmentBytes;
+
+    private int segmentIndex;
+    private MappedByteBuffer current;
+    private int position; // next free slot in the current segment
+    private int readSegmentIndex = -1;
+    private MappedByteBuffer readSegment;
+
+    public JournalTransactionStore(Path directory) {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code directory}, recovering the write
+     * position. Segment files are sized by {@code recordsPerSegment}, so an
+     * existing journal must be reopened with the value it was written with.
+     */
+    public JournalTransactionStore(Path directory, int recordsPerSegment) {
+        if (recordsPerSegment <= 0 || recordsPerSegment > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("recordsPerSegment must be between 1 and "
+                    + Integer.MAX_VALUE / RECORD_SIZE + ": " + recordsPerSegment);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segmentBytes = (long) recordsPerSegment * RECORD_SIZE;
+        try {
+            Files.createDirectories(directory);
+            List<Integer> segments = segmentIndexes();
+            segmentIndex = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+            current = map(segmentIndex, FileChannel.MapMode.READ_WRITE);
+            position = usedSlots(current);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized long append(Transaction transaction) {
+        if (position == recordsPerSegment) {
+            roll();
+        }
+        write(current, position * RECORD_SIZE, transaction);
+        position++;
+        return size() - 1;
+    }
+
+    /**
+     * Appends the batch all or nothing. Every record is encoded first, so one
+     * that cannot be journaled fails the call before anything is written. The
+     * records are then copied in with their type codes still zero, the type
+     * codes are set, and only then is the write position published. A crash
+     * while the type codes are being set can still leave a prefix of the batch.
+     */
+    @Override
+    public synchronized long appendAll(Collection<Transaction> transactions) {
+        long first = size();
+        int count = transactions.size();
+        ByteBuffer batch = ByteBuffer.allocate(count * RECORD_SIZE);
+        int offset = 0;
+        for (Transaction transaction : transactions) {
+            write(batch, offset, transaction);
+            offset += RECORD_SIZE;
+        }
+
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        segments.add(current);
+        int slot = position;
+        for (int record = 0; record < count; record++) {
+            if (slot == recordsPerSegment) {
+                segments.add(mapForWrite(segmentIndex + segments.size()));
+                slot = 0;
+            }
+            segments.get(segments.size() - 1)
+                    .put(slot * RECORD_SIZE + 1, batch, record * RECORD_SIZE + 1, RECORD_SIZE - 1);
+            slot++;
+        }
+        int segment = 0;
+        slot = position;
+        for (int record = 0; record < count; record++) {
+            if (slot == recordsPerSegment) {
+                segment++;
+                slot = 0;
+            }
+            segments.get(segment).put(slot * RECORD_SIZE, batch.get(record * RECORD_SIZE));
+            slot++;
+        }
+
+        for (int i = 0; i < segments.size() - 1; i++) {
+            segments.get(i).force();
+        }
+        current = segments.get(segments.size() - 1);
+        segmentIndex += segments.size() - 1;
+        position = slot;
+        return first;
+    }
+
+    /** Rejects account numbers that are not US-ASCII or are longer than the record allows. */
+    @Override
+    public void validate(Transaction transaction) {
+        accountBytes(transaction);
+    }
+
+    @Override
+    public synchronized long size() {
+        return (long) segmentIndex * recordsPerSegment + position;
+    }
+
+    /**
+     * Reads one record. Rows in the current segment come straight from its
+     * mapping; older segments are mapped on demand, and the last one mapped is
+     * kept for the next lookup.
+     */
+    @Override
+    public synchronized Transaction get(long row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size());
+        }
+        int segment = (int) (row / recordsPerSegment);
+        int offset = (int) (row % recordsPerSegment) * RECORD_SIZE;
+        ByteBuffer buffer;
+        if (segment == segmentIndex) {
+            buffer = current;
+        } else {
+            if (segment != readSegmentIndex) {
+                try {
+                    readSegment = map(segment, FileChannel.MapMode.READ_ONLY);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read journal segment " + segment, e);
+                }
+                readSegmentIndex = segment;
+            }
+            buffer = readSegment;
+        }
+        return read(buffer, offset, new byte[MAX_ACCOUNT_LENGTH]);
+    }
+
+    /** Replays every journaled transaction in append order. */
+    @Override
+    public void forEach(Consumer<Transaction> action) {
+        int lastSegment;
+        int lastPosition;
+        ByteBuffer tail;
+        synchronized (this) {
+            lastSegment = segmentIndex;
+            lastPosition = position;
+            tail = current.duplicate();
+        }
+        try {
+            for (int segment = 0; segment < lastSegment; segment++) {
+                replay(map(segment, FileChannel.MapMode.READ_ONLY), recordsPerSegment, action);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay journal in " + directory, e);
+        }
+        replay(tail, lastPosition, action);
+    }
+
+    /** Flushes the current segment to the storage device. */
+    public synchronized void sync() {
+        current.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        current.force();
+    }
+
+    private void roll() {
+        current.force();
+        current = mapForWrite(segmentIndex + 1);
+        segmentIndex++;
+        position = 0;
+    }
+
+    private MappedByteBuffer mapForWrite(int segment) {
+        try {
+            return map(segment, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll journal segment in " + directory, e);
+        }
+    }
+
+    private MappedByteBuffer map(int segment, FileChannel.MapMode mode) throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[] { StandardOpenOption.READ }
+                : new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE };
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            // The mapping stays valid after the channel is closed.
+            return channel.map(mode, 0, segmentBytes);
+        }
+    }
+
+    private List<Integer> segmentIndexes() throws IOException {
+        List<Integer> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                indexes.add(Integer.parseInt(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                long bytes = Files.size(file);
+                if (bytes != segmentBytes) {
+                    throw new IllegalStateException("Journal segment " + file + " is " + bytes
+                            + " bytes, expected " + segmentBytes + " for " + recordsPerSegment
+                            + " records per segment");
+                }
+            }
+        }
+        Collections.sort(indexes);
+        for (int i = 0; i < indexes.size(); i++) {
+            if (indexes.get(i) != i) {
+                throw new IllegalStateException("Journal segment " + i + " is missing in " + directory);
+            }
+        }
+        return indexes;
+    }
+
+    // Records are written contiguously, so the used prefix can be found by binary search.
+    private int usedSlots(ByteBuffer segment) {
+        int low = 0;
+        int high = recordsPerSegment;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (segment.get(mid * RECORD_SIZE) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static byte[] accountBytes(Transaction transaction) {
+        String number = transaction.getAccountNumber();
+        for (int i = 0; i < number.length(); i++) {
+            if (number.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("Account number is not US-ASCII: " + number);
+            }
+        }
+        if (number.length() > MAX_ACCOUNT_LENGTH) {
+            throw new IllegalArgumentException("Account number too long for journal: " + number);
+        }
+        return number.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void write(ByteBuffer segment, int offset, Transaction transaction) {
+        byte[] account = accountBytes(transaction);
+        segment.put(offset + 1, (byte) account.length);
+        segment.put(offset + ACCOUNT_OFFSET, account);
+        segment.putLong(offset + AMOUNT_OFFSET, transaction.getAmountCents());
+        segment.putLong(offset + TIME_OFFSET, transaction.getEpochNanos());
+        segment.put(offset, transaction.getType().getCode());
+    }
+
+    private static void replay(ByteBuffer segment, int records, Consumer<Transaction> action) {
+        byte[] account = new byte[MAX_ACCOUNT_LENGTH];
+        for (int i = 0; i < records; i++) {
+            int offset = i * RECORD_SIZE;
+            byte code = segment.get(offset);
+            if (code == 0) {
+                return;
+            }
+            action.accept(read(segment, offset, account));
+        }
+    }
+
+    private static Transaction read(ByteBuffer segment, int offset, byte[] account) {
+        int length = segment.get(offset + 1);
+        segment.get(offset + ACCOUNT_OFFSET, account, 0, length);
+        return new Transaction(new String(account, 0, length, StandardCharsets.US_ASCII),
+                segment.getLong(offset + AMOUNT_OFFSET),
+                TransactionType.fromCode(segment.get(offset)),
+                Transaction.fromEpochNanos(segment.getLong(offset + TIME_OFFSET)));
+    }
+}
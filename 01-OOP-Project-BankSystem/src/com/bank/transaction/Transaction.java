@@ -1,22 +1,73 @@
 package com.bank.transaction;
 
+import com.bank.utils.Money;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public class Transaction {
     private String accountNumber;
-    private double amount;
+    private long amountCents;
     private LocalDateTime dateTime;
-    private String type; // Deposit or Withdraw
+    private TransactionType type;
 
+    /**
+     * Legacy constructor taking the type as free text. Labels that name no
+     * {@link TransactionType} are recorded as {@link TransactionType#OTHER}.
+     */
     public Transaction(String accountNumber, double amount, String type) {
+        this(accountNumber, Money.toCents(amount), TransactionType.fromLabelOrOther(type), LocalDateTime.now());
+    }
+
+    public Transaction(String accountNumber, long amountCents, TransactionType type) {
+        this(accountNumber, amountCents, type, LocalDateTime.now());
+    }
+
+    Transaction(String accountNumber, long amountCents, TransactionType type, LocalDateTime dateTime) {
         this.accountNumber = accountNumber;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.type = type;
-        this.dateTime = LocalDateTime.now();
+        this.dateTime = dateTime;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public double getAmount() {
+        return Money.toAmount(amountCents);
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    /** Timestamp as nanoseconds since the epoch, interpreted in the system time zone. */
+    public long getEpochNanos() {
+        return toEpochNanos(dateTime);
+    }
+
+    static long toEpochNanos(LocalDateTime dateTime) {
+        Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    static LocalDateTime fromEpochNanos(long epochNanos) {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                Math.floorMod(epochNanos, 1_000_000_000L));
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
     }
 
     @Override
     public String toString() {
-        return dateTime + " - " + type + " - " + accountNumber + " - " + amount;
+        return dateTime + " - " + type + " - " + accountNumber + " - " + getAmount();
     }
 }
@@ -0,0 +1,109 @@
+package com.bank.transaction;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over a {@link TransactionStore}: a posting list of row
+ * numbers per account, and the same rows grouped into fixed-width time
+ * buckets. Each posting also carries the row's timestamp, so time filtering
+ * happens before any transaction is read back from the store.
+ */
+public class TransactionIndex {
+    public static final Duration DEFAULT_BUCKET_WIDTH = Duration.ofHours(1);
+
+    /** Growable (row, epochNanos) pairs. Entries below {@code size} never change. */
+    private static final class PostingList {
+        long[] rows = new long[8];
+        long[] times = new long[8];
+        int size;
+
+        void add(long row, long epochNanos) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            rows[size] = row;
+            times[size] = epochNanos;
+            size++;
+        }
+    }
+
+    /** Immutable view of a posting list taken under the index lock. */
+    private static final class Snapshot {
+        final long[] rows;
+        final long[] times;
+        final int size;
+
+        Snapshot(PostingList postings) {
+            this.rows = postings.rows;
+            this.times = postings.times;
+            this.size = postings.size;
+        }
+
+        LongStream rowsBetween(long fromNanos, long toNanos) {
+            return IntStream.range(0, size)
+                    .filter(i -> times[i] >= fromNanos && times[i] < toNanos)
+                    .mapToLong(i -> rows[i]);
+        }
+    }
+
+    private final long bucketNanos;
+    private final Map<String, PostingList> byAccount = new HashMap<>();
+    private final NavigableMap<Long, PostingList> byTime = new TreeMap<>();
+
+    public TransactionIndex() {
+        this(DEFAULT_BUCKET_WIDTH);
+    }
+
+    public TransactionIndex(Duration bucketWidth) {
+        this.bucketNanos = bucketWidth.toNanos();
+        if (bucketNanos <= 0) {
+            throw new IllegalArgumentException("bucketWidth must be positive: " + bucketWidth);
+        }
+    }
+
+    public synchronized void add(long row, Transaction transaction) {
+        long time = transaction.getEpochNanos();
+        byAccount.computeIfAbsent(transaction.getAccountNumber(), k -> new PostingList()).add(row, time);
+        byTime.computeIfAbsent(bucketOf(time), k -> new PostingList()).add(row, time);
+    }
+
+    /** Rows for the account with {@code fromNanos <= time < toNanos}, lazily filtered. */
+    public LongStream rowsForAccount(String accountNumber, long fromNanos, long toNanos) {
+        Snapshot snapshot;
+        synchronized (this) {
+            PostingList postings = byAccount.get(accountNumber);
+            if (postings == null) {
+                return LongStream.empty();
+            }
+            snapshot = new Snapshot(postings);
+        }
+        return snapshot.rowsBetween(fromNanos, toNanos);
+    }
+
+    /** Rows with {@code fromNanos <= time < toNanos}, visiting only the overlapping buckets. */
+    public LongStream rowsBetween(long fromNanos, long toNanos) {
+        if (fromNanos >= toNanos) {
+            return LongStream.empty();
+        }
+        Snapshot[] snapshots;
+        synchronized (this) {
+            snapshots = byTime.subMap(bucketOf(fromNanos), true, bucketOf(toNanos - 1), true).values().stream()
+                    .map(Snapshot::new)
+                    .toArray(Snapshot[]::new);
+        }
+        return Stream.of(snapshots).flatMapToLong(snapshot -> snapshot.rowsBetween(fromNanos, toNanos));
+    }
+
+    private long bucketOf(long epochNanos) {
+        return Math.floorDiv(epochNanos, bucketNanos);
+    }
+}
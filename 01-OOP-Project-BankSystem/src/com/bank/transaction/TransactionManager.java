@@ -1,18 +1,114 @@
 package com.bank.transaction;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class TransactionManager {
-    private List<Transaction> transactions = new ArrayList<>();
+    private final TransactionStore store;
+    private final TransactionIndex index;
+
+    public TransactionManager() {
+        this(new InMemoryTransactionStore());
+    }
+
+    public TransactionManager(TransactionStore store) {
+        this(store, null);
+    }
+
+    /**
+     * Creates a manager that maintains {@code index} on every append. Anything
+     * already in the store (for example a replayed journal) is indexed first.
+     */
+    public TransactionManager(TransactionStore store, TransactionIndex index) {
+        this.store = store;
+        this.index = index;
+        if (index != null) {
+            long[] row = { 0 };
+            store.forEach(transaction -> index.add(row[0]++, transaction));
+        }
+    }
 
     public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
+        long row = store.append(transaction);
+        if (index != null) {
+            index.add(row, transaction);
+        }
+    }
+
+    /** Records a batch of transactions in a single store append. */
+    public void addTransactions(Collection<Transaction> batch) {
+        long row = store.appendAll(batch);
+        if (index != null) {
+            for (Transaction transaction : batch) {
+                index.add(row++, transaction);
+            }
+        }
+    }
+
+    /** Throws {@link IllegalArgumentException} if the store could not record {@code transaction}. */
+    public void validate(Transaction transaction) {
+        store.validate(transaction);
+    }
+
+    public long getTransactionCount() {
+        return store.size();
     }
 
     public void listTransactions() {
-        for (Transaction t : transactions) {
-            System.out.println(t);
+        store.forEach(System.out::println);
+    }
+
+    /** All transactions for the account, in index order. */
+    public Stream<Transaction> findByAccount(String accountNumber) {
+        return findByAccount(accountNumber, LocalDateTime.MIN, LocalDateTime.MAX);
+    }
+
+    /**
+     * Transactions for the account with {@code from <= dateTime < to}. With an
+     * index this reads only the account's own postings; without one it falls
+     * back to a full scan.
+     */
+    public Stream<Transaction> findByAccount(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        if (index == null) {
+            return scan().filter(t -> t.getAccountNumber().equals(accountNumber) && inRange(t, fromNanos, toNanos));
+        }
+        return index.rowsForAccount(accountNumber, fromNanos, toNanos).mapToObj(store::get);
+    }
+
+    /** Transactions with {@code from <= dateTime < to}, across all accounts. */
+    public Stream<Transaction> findBetween(LocalDateTime from, LocalDateTime to) {
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        if (index == null) {
+            return scan().filter(t -> inRange(t, fromNanos, toNanos));
+        }
+        return index.rowsBetween(fromNanos, toNanos).mapToObj(store::get);
+    }
+
+    public TransactionStore getStore() {
+        return store;
+    }
+
+    // Reads rows lazily as the stream is consumed, up to the size at the time of the call.
+    private Stream<Transaction> scan() {
+        return LongStream.range(0, store.size()).mapToObj(store::get);
+    }
+
+    private static boolean inRange(Transaction transaction, long fromNanos, long toNanos) {
+        long time = transaction.getEpochNanos();
+        return time >= fromNanos && time < toNanos;
+    }
+
+    // LocalDateTime.MIN/MAX are outside the epoch-nanos range, so clamp instead of overflowing.
+    private static long toNanos(LocalDateTime dateTime) {
+        try {
+            return Transaction.toEpochNanos(dateTime);
+        } catch (ArithmeticException e) {
+            return dateTime.getYear() < 1970 ? Long.MIN_VALUE : Long.MAX_VALUE;
         }
     }
 }
@@ -0,0 +1,40 @@
+package com.bank.transaction;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for {@link TransactionManager}. Implementations must be safe
+ * for concurrent appends.
+ */
+public interface TransactionStore extends AutoCloseable {
+
+    /** Appends the transaction and returns its row number (0-based, in append order). */
+    long append(Transaction transaction);
+
+    /**
+     * Appends all transactions as one unit; no other append interleaves with
+     * them. Returns the row number of the first one.
+     */
+    long appendAll(Collection<Transaction> transactions);
+
+    /**
+     * Throws {@link IllegalArgumentException} if {@code transaction} cannot be
+     * stored, so callers can check before acting on it. Appends check too.
+     */
+    default void validate(Transaction transaction) {
+    }
+
+    /** Number of transactions stored. */
+    long size();
+
+    /** Returns the transaction at the given row number. */
+    Transaction get(long row);
+
+    /** Visits every transaction in append order. */
+    void forEach(Consumer<Transaction> action);
+
+    @Override
+    default void close() {
+    }
+}
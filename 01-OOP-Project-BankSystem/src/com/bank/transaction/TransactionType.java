@@ -0,0 +1,81 @@
+package com.bank.transaction;
+
+/**
+ * Kinds of transaction, each with a stable one-byte code used by the binary
+ * journal and columnar stores.
+ */
+public enum TransactionType {
+    DEPOSIT(1, "Deposit", 1),
+    WITHDRAW(2, "Withdraw", -1),
+    TRANSFER_IN(3, "Transfer In", 1),
+    TRANSFER_OUT(4, "Transfer Out", -1),
+    INTEREST(5, "Interest", 1),
+    /** Free-text label from {@link Transaction#Transaction(String, double, String)} that names no known type. */
+    OTHER(6, "Other", 0);
+
+    private static final TransactionType[] BY_CODE = new TransactionType[Byte.MAX_VALUE + 1];
+
+    static {
+        for (TransactionType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+    private final String label;
+    private final int sign;
+
+    TransactionType(int code, String label, int sign) {
+        this.code = (byte) code;
+        this.label = label;
+        this.sign = sign;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Direction of the money for the account: 1 when it comes in, -1 when it
+     * goes out, and 0 for {@link #OTHER}, whose direction is unknown.
+     */
+    public int getSign() {
+        return sign;
+    }
+
+    public static TransactionType fromCode(byte code) {
+        TransactionType type = code > 0 ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown transaction type code: " + code);
+        }
+        return type;
+    }
+
+    public static TransactionType fromLabel(String label) {
+        for (TransactionType type : values()) {
+            if (type.label.equalsIgnoreCase(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + label);
+    }
+
+    /** Like {@link #fromLabel(String)}, but maps unknown or null labels to {@link #OTHER}. */
+    static TransactionType fromLabelOrOther(String label) {
+        for (TransactionType type : values()) {
+            if (type.label.equalsIgnoreCase(label)) {
+                return type;
+            }
+        }
+        return OTHER;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
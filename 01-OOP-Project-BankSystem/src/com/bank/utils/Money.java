@@ -0,0 +1,22 @@
+package com.bank.utils;
+
+/**
+ * Fixed-point helpers: amounts are kept as long minor units (cents) so that
+ * balance arithmetic is exact and never drifts the way doubles do.
+ */
+public final class Money {
+    public static final long CENTS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    /** Converts a decimal amount (e.g. 12.34) to cents, rounding half-up. */
+    public static long toCents(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /** Converts cents back to a decimal amount for display. */
+    public static double toAmount(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+}
@@ -0,0 +1,157 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking facade over a {@link UserRepository}. Each call runs the
+ * blocking JDBC work on its own task and returns a {@link CompletableFuture}.
+ *
+ * On Java 21+ tasks run on virtual threads, so tens of thousands of calls can
+ * be in flight without tying up platform threads. A semaphore sized to the
+ * connection pool keeps only as many tasks inside JDBC as there are
+ * connections; the rest park cheaply instead of queueing on the pool. On
+ * older runtimes a fixed platform pool of the same size is used instead.
+ *
+ * Each task runs in the {@link ReadYourWrites} session of the thread that
+ * submitted it, so a read submitted after a write sees that write.
+ *
+ * Unlike the synchronous repository, which logs database errors and carries
+ * on, a failed call completes its future exceptionally with the
+ * {@link SQLException} as the cause. Mutations complete with the number of
+ * rows affected.
+ */
+class AsyncUserRepository implements AutoCloseable {
+
+    private final UserRepository repository;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    /** Sizes the concurrency limit to the pool of {@code database}, which must already be connected. */
+    public AsyncUserRepository(UserRepository repository, PostgresDatabase database) {
+        this(repository, maxPoolSize(database));
+    }
+
+    public AsyncUserRepository(UserRepository repository, int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.repository = repository;
+        this.permits = new Semaphore(maxConcurrent);
+        this.executor = newTaskExecutor(maxConcurrent);
+    }
+
+    public CompletableFuture<User> getUserById(int id) {
+        return submit(() -> repository.doGetUserById(id));
+    }
+
+    public CompletableFuture<List<User>> getUsersAfter(int lastId, int limit) {
+        return submit(() -> repository.doGetUsersAfter(lastId, limit, null, null));
+    }
+
+    public CompletableFuture<Integer> insertUser(String name, String email) {
+        return submit(() -> repository.doInsertUser(name, email));
+    }
+
+    public CompletableFuture<Integer> updateUser(int id, String name, String email) {
+        return submit(() -> repository.doUpdateUser(id, name, email));
+    }
+
+    public CompletableFuture<Integer> deleteUser(int id) {
+        return submit(() -> repository.doDeleteUser(id));
+    }
+
+    /** Completes with the generated ids; fails if any chunk fails, even though earlier chunks stay committed. */
+    public CompletableFuture<List<Integer>> insertUsers(Collection<User> users) {
+        return submit(() -> {
+            List<Integer> ids = new ArrayList<>(users.size());
+            repository.doInsertUsers(users, ids);
+            return ids;
+        });
+    }
+
+    /** Completes with the rows updated; fails if any chunk fails, even though earlier chunks stay committed. */
+    public CompletableFuture<Integer> updateUsers(Collection<User> users) {
+        return submit(() -> {
+            int[] updated = { 0 };
+            repository.doUpdateUsers(users, rows -> updated[0] += rows);
+            return updated[0];
+        });
+    }
+
+    /** Stops accepting work and waits briefly for running calls to finish. */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    private <T> CompletableFuture<T> submit(SqlCall<T> call) {
+        ReadYourWrites session = ReadYourWrites.current();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            // Completed inside the session, so dependent stages that submit more calls inherit it.
+            ReadYourWrites.Scope scope = session.bind();
+            try {
+                T result;
+                try {
+                    result = call.call();
+                } finally {
+                    permits.release();
+                }
+                future.complete(result);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                scope.close();
+            }
+        });
+        return future;
+    }
+
+    private static int maxPoolSize(PostgresDatabase database) {
+        ConnectionPool pool = database.getPool();
+        if (pool == null) {
+            throw new IllegalStateException("Database is not connected; call connect() before creating "
+                    + "an AsyncUserRepository sized to its pool");
+        }
+        return pool.getConfig().getMaxSize();
+    }
+
+    // Looked up reflectively so this file still compiles and runs on Java 17.
+    private static ExecutorService newTaskExecutor(int maxConcurrent) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+                Thread thread = new Thread(runnable, "async-user-repository");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Compares {@link BulkUserLoader} paths on a live database:
+ *
+ * <pre>
+ * java -cp .:postgresql.jar BulkLoadBenchmark jdbc:postgresql://localhost:5432/demo_db demo_user admin 1000000
+ * </pre>
+ *
+ * Each path loads the same generated rows into {@code users} a few times; the
+ * rows it added are deleted again after every run. The best run per path is
+ * reported.
+ */
+public class BulkLoadBenchmark {
+
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 4) {
+            System.err.println("Usage: BulkLoadBenchmark <url> <user> <password> <rows>");
+            return;
+        }
+        int rows = Integer.parseInt(args[3]);
+        List<User> users = new AbstractList<User>() {
+            @Override
+            public User get(int i) {
+                return new User(0, "bench user " + i, "bench" + i + "@example.com");
+            }
+
+            @Override
+            public int size() {
+                return rows;
+            }
+        };
+
+        try (PostgresDatabase db = new PostgresDatabase(args[0], args[1], args[2])) {
+            db.connect();
+            for (BulkUserLoader.Mode mode : new BulkUserLoader.Mode[] {
+                    BulkUserLoader.Mode.COPY, BulkUserLoader.Mode.MULTI_ROW_INSERT }) {
+                BulkUserLoader loader = new BulkUserLoader(db, mode, BulkUserLoader.DEFAULT_ROWS_PER_INSERT);
+                long best = Long.MAX_VALUE;
+                try {
+                    for (int run = 0; run < RUNS; run++) {
+                        int maxId = maxId(db);
+                        long start = System.nanoTime();
+                        loader.load(users);
+                        best = Math.min(best, System.nanoTime() - start);
+                        deleteAbove(db, maxId);
+                    }
+                    System.out.printf("%-17s %,d rows in %,.1f ms (%,.0f rows/s)%n", mode, rows,
+                            best / 1_000_000.0, rows * 1_000_000_000.0 / best);
+                } catch (SQLException e) {
+                    System.out.printf("%-17s skipped: %s%n", mode, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static int maxId(PostgresDatabase db) throws SQLException {
+        try (Connection connection = db.getConnection();
+                Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM users")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void deleteAbove(PostgresDatabase db, int id) throws SQLException {
+        try (Connection connection = db.getConnection();
+                PreparedStatement stmt = connection.prepareStatement("DELETE FROM users WHERE id > ?")) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+/**
+ * Loads large numbers of users in as few round trips as possible.
+ *
+ * With the PostgreSQL driver, rows are streamed as CSV through
+ * {@code COPY users (name, email) FROM STDIN}, which skips per-row statement
+ * processing entirely. Other drivers (e.g. an embedded test database) fall back
+ * to multi-row {@code INSERT ... VALUES (?, ?), (?, ?), ...} statements,
+ * committed one chunk at a time. The driver is reached through reflection, so
+ * this class has no compile-time dependency on it.
+ */
+class BulkUserLoader {
+
+    /** Which load path to use. */
+    enum Mode {
+        /** COPY when the connection is PostgreSQL, otherwise multi-row INSERT. */
+        AUTO,
+        COPY,
+        MULTI_ROW_INSERT
+    }
+
+    public static final int DEFAULT_ROWS_PER_INSERT = 500;
+
+    // The PostgreSQL wire protocol counts bind parameters in an unsigned 16-bit field.
+    private static final int MAX_BIND_PARAMETERS = 65535;
+    private static final int COLUMNS = 2;
+
+    private static final String COPY_SQL = "COPY users (name, email) FROM STDIN WITH (FORMAT csv)";
+    private static final String PG_CONNECTION = "org.postgresql.PGConnection";
+
+    private final PostgresDatabase database;
+    private final Mode mode;
+    private final int rowsPerInsert;
+
+    public BulkUserLoader(PostgresDatabase database) {
+        this(database, Mode.AUTO, DEFAULT_ROWS_PER_INSERT);
+    }
+
+    /**
+     * Creates a loader whose INSERT fallback writes {@code rowsPerInsert} rows
+     * per statement, capped so a statement stays within the bind parameter limit.
+     */
+    public BulkUserLoader(PostgresDatabase database, Mode mode, int rowsPerInsert) {
+        if (rowsPerInsert <= 0) {
+            throw new IllegalArgumentException("rowsPerInsert must be positive: " + rowsPerInsert);
+        }
+        this.database = database;
+        this.mode = mode;
+        this.rowsPerInsert = Math.min(rowsPerInsert, MAX_BIND_PARAMETERS / COLUMNS);
+    }
+
+    /** Loads every user (ids are ignored) and returns the number of rows written. */
+    public long load(Iterable<User> users) throws SQLException {
+        try (Connection connection = database.getConnection()) {
+            Object copyManager = mode == Mode.MULTI_ROW_INSERT ? null : copyManager(connection);
+            if (copyManager != null) {
+                return copy(copyManager, users.iterator());
+            }
+            if (mode == Mode.COPY) {
+                throw new SQLException("COPY requested but the connection is not a PostgreSQL connection");
+            }
+            return insert(connection, users.iterator());
+        }
+    }
+
+    private static Object copyManager(Connection connection) throws SQLException {
+        Class<?> pgConnection;
+        try {
+            pgConnection = Class.forName(PG_CONNECTION);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!connection.isWrapperFor(pgConnection)) {
+            return null;
+        }
+        try {
+            return pgConnection.getMethod("getCopyAPI").invoke(connection.unwrap(pgConnection));
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Failed to obtain PostgreSQL CopyManager", e);
+        }
+    }
+
+    private static long copy(Object copyManager, Iterator<User> users) throws SQLException {
+        try {
+            Method copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+            return (Long) copyIn.invoke(copyManager, COPY_SQL, new CsvReader(users));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof SQLException ? (SQLException) cause
+                    : new SQLException("COPY failed: " + cause.getMessage(), cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Failed to call CopyManager.copyIn", e);
+        }
+    }
+
+    private long insert(Connection connection, Iterator<User> users) throws SQLException {
+        long loaded = 0;
+        User[] chunk = new User[rowsPerInsert];
+        connection.setAutoCommit(false);
+        try (PreparedStatement full = connection.prepareStatement(insertSql(rowsPerInsert))) {
+            while (users.hasNext()) {
+                int n = 0;
+                while (n < rowsPerInsert && users.hasNext()) {
+                    chunk[n++] = users.next();
+                }
+                if (n == rowsPerInsert) {
+                    loaded += bindAndExecute(full, chunk, n);
+                } else {
+                    try (PreparedStatement tail = connection.prepareStatement(insertSql(n))) {
+                        loaded += bindAndExecute(tail, chunk, n);
+                    }
+                }
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        return loaded;
+    }
+
+    private static int bindAndExecute(PreparedStatement stmt, User[] chunk, int n) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < n; i++) {
+            stmt.setString(index++, chunk[i].getName());
+            stmt.setString(index++, chunk[i].getEmail());
+        }
+        return stmt.executeUpdate();
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO users (name, email) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+        }
+        return sql.toString();
+    }
+
+    /** Produces CSV lines on demand, so the input is never materialized as one big string. */
+    private static final class CsvReader extends Reader {
+        private final Iterator<User> users;
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+
+        CsvReader(Iterator<User> users) {
+            this.users = users;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == line.length()) {
+                if (!users.hasNext()) {
+                    return -1;
+                }
+                User user = users.next();
+                line.setLength(0);
+                position = 0;
+                appendField(user.getName());
+                line.append(',');
+                appendField(user.getEmail());
+                line.append('\n');
+            }
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        // Quoted, with embedded quotes doubled, so commas and newlines are safe. A null is
+        // written unquoted and empty, which CSV COPY reads as NULL, just as the INSERT path
+        // binds it; the table's NOT NULL constraints then reject it the same way on both.
+        private void appendField(String value) {
+            if (value == null) {
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
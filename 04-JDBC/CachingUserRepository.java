@@ -0,0 +1,105 @@
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * {@link UserRepository} with a read-through {@link UserCache} in front of
+ * {@link #getUserById(int)}. Writes through this repository invalidate the
+ * affected ids, so reads here never see a row older than the last write made
+ * through it (writes made by other processes are bounded by the TTL).
+ *
+ * With read replicas, the cache is shared by every caller's session, so it
+ * keeps a {@link ReadYourWrites} pin of its own: any invalidation sends the
+ * loads that refill entries to the primary for the read-your-writes window,
+ * whichever session makes them, and a lagging replica cannot put the old row
+ * back in the cache.
+ */
+class CachingUserRepository extends UserRepository {
+
+    private final UserCache cache;
+    // Marked on every invalidation; while pinned, refills read from the primary.
+    private final ReadYourWrites refills = new ReadYourWrites();
+
+    public CachingUserRepository(PostgresDatabase database, int maxSize, long ttlMillis) {
+        super(database);
+        this.cache = new UserCache(maxSize, ttlMillis);
+    }
+
+    @Override
+    User doGetUserById(int id) throws SQLException {
+        User cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        // A load that raced with an invalidation is not cached.
+        long seen = cache.version();
+        long start = System.nanoTime();
+        ReadYourWrites session = getDatabase().isPinned(refills) ? refills : ReadYourWrites.current();
+        User loaded;
+        ReadYourWrites.Scope scope = session.bind();
+        try {
+            loaded = super.doGetUserById(id);
+        } finally {
+            scope.close();
+        }
+        cache.recordLoad(System.nanoTime() - start);
+        if (loaded != null) {
+            cache.putIfCurrent(loaded, seen);
+        }
+        return loaded;
+    }
+
+    @Override
+    int doUpdateUser(int id, String name, String email) throws SQLException {
+        try {
+            return super.doUpdateUser(id, name, email);
+        } finally {
+            cache.invalidate(id);
+            refills.markWritten();
+        }
+    }
+
+    @Override
+    int doDeleteUser(int id) throws SQLException {
+        try {
+            return super.doDeleteUser(id);
+        } finally {
+            cache.invalidate(id);
+            refills.markWritten();
+        }
+    }
+
+    @Override
+    void doUpdateUsers(Collection<User> users, IntConsumer committed) throws SQLException {
+        try {
+            super.doUpdateUsers(users, committed);
+        } finally {
+            cache.invalidate(users);
+            refills.markWritten();
+        }
+    }
+
+    @Override
+    public int upsertUsers(Collection<User> users) {
+        try {
+            return super.upsertUsers(users);
+        } finally {
+            cache.invalidate(users);
+            refills.markWritten();
+        }
+    }
+
+    @Override
+    public int deleteUsers(int[] ids) {
+        try {
+            return super.deleteUsers(ids);
+        } finally {
+            cache.invalidate(ids);
+            refills.markWritten();
+        }
+    }
+
+    public UserCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,345 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of JDBC connections.
+ *
+ * Borrowed connections are proxies: calling {@code close()} hands the physical
+ * connection back to the pool instead of closing it, so callers simply use
+ * try-with-resources. A semaphore caps open connections at {@code maxSize};
+ * idle connections are checked with {@code isValid} on borrow, and a
+ * background task closes those idle longer than the configured timeout.
+ * Each physical connection also carries a {@link StatementCache}.
+ */
+class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final PoolConfig config;
+
+    private final Semaphore permits;
+    // Most recently returned first, so hot connections stay hot and cold ones age out.
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final StatementCache.Stats statementStats = new StatementCache.Stats();
+
+    ConnectionPool(String url, String username, String password, PoolConfig config) throws SQLException {
+        config.validate();
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        try {
+            for (int i = 0; i < config.getMinIdle(); i++) {
+                idle.offerLast(new PooledConnection(openPhysical()));
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Nothing will ever close this pool, so release what pre-warm already opened.
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                pooled.destroy();
+            }
+            throw e;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000, config.getIdleTimeoutMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Borrows a connection, waiting up to the configured borrow timeout. */
+    public Connection borrow() throws SQLException {
+        return borrow(config.getBorrowTimeoutMillis());
+    }
+
+    /**
+     * Borrows a connection, waiting at most {@code timeoutMillis} for one to
+     * free up; 0 fails at once when the pool is exhausted.
+     */
+    public Connection borrow(long timeoutMillis) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("Timed out after " + timeoutMillis
+                        + " ms waiting for a connection (active=" + active.get() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysical());
+            }
+            recordWait(System.nanoTime() - start);
+            active.incrementAndGet();
+            borrows.increment();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getOpenCount() {
+        return open.get();
+    }
+
+    public long getBorrowCount() {
+        return borrows.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getDestroyedCount() {
+        return destroyed.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = borrows.sum();
+        return count == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getStatementCacheHits() {
+        return statementStats.hits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementStats.misses.sum();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementStats.evictions.sum();
+    }
+
+    PoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, open=%d, borrows=%d, timeouts=%d, avgWait=%.3f ms, maxWait=%.3f ms,"
+                + " stmtHits=%d, stmtMisses=%d",
+                getActiveCount(), getIdleCount(), getOpenCount(), getBorrowCount(), getTimeoutCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getStatementCacheHits(), getStatementCacheMisses());
+    }
+
+    /** Closes idle connections now; borrowed ones are closed when returned. */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.destroy();
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.isUsable(config.getValidationTimeoutSeconds())) {
+                return pooled;
+            }
+            pooled.destroy();
+        }
+        return null;
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        open.incrementAndGet();
+        created.increment();
+        return connection;
+    }
+
+    private void release(PooledConnection pooled, boolean broken) {
+        active.decrementAndGet();
+        try {
+            if (broken || closed) {
+                pooled.destroy();
+            } else {
+                pooled.lastUsedNanos = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        // The least recently used connections sit at the tail.
+        while (idle.size() > config.getMinIdle()) {
+            PooledConnection oldest = idle.peekLast();
+            if (oldest == null || oldest.lastUsedNanos > cutoff) {
+                break;
+            }
+            if (idle.removeLastOccurrence(oldest)) {
+                oldest.destroy();
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * One physical connection. Each borrow gets a fresh proxy, so a stale
+     * reference kept after {@code close()} cannot touch the next borrower's
+     * session.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final StatementCache statements;
+        volatile long lastUsedNanos = System.nanoTime();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = config.getStatementCacheSize() > 0
+                    ? new StatementCache(config.getStatementCacheSize(), statementStats)
+                    : null;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Lease(this));
+        }
+
+        boolean isUsable(int timeoutSeconds) {
+            try {
+                return !physical.isClosed() && physical.isValid(timeoutSeconds);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void destroy() {
+            open.decrementAndGet();
+            destroyed.increment();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("[WARN] Failed to close pooled connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        // Not a lock: JDBC calls run unsynchronized so a virtual thread blocked in one is not pinned.
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(pooled, !reset());
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (returned.get() ? ", returned" : "") + "]";
+                default:
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if (pooled.statements != null && method.getName().equals("prepareStatement")) {
+                        return pooled.statements.prepare(pooled.physical, method, args);
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+
+        // Undo session changes a borrower may have left behind; false means the connection is unusable.
+        private boolean reset() {
+            try {
+                Connection physical = pooled.physical;
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (pooled.statements != null) {
+                    pooled.statements.releaseAll();
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * {@link RowMapper} that builds objects through one of their constructors.
+ *
+ * The constructor is resolved once, when the mapper is created, into a
+ * {@link MethodHandle}, and the value reader for each parameter is chosen from
+ * its type. {@link #bind(ResultSet)} resolves the column labels to indexes
+ * once per query, so rows mapped through the bound mapper need no label
+ * lookup and no reflection; {@link #map(ResultSet)} on the mapper itself
+ * resolves them on every call. Mappers hold no mutable state, so they are
+ * thread-safe and meant to be kept in static fields.
+ */
+final class ConstructorRowMapper<T> implements RowMapper<T> {
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+
+    private final String[] labels;
+    private final ColumnReader[] readers;
+    private final MethodHandle constructor;
+
+    private ConstructorRowMapper(Constructor<T> ctor, String[] labels) {
+        Class<?>[] types = ctor.getParameterTypes();
+        if (types.length != labels.length) {
+            throw new IllegalArgumentException(ctor + " takes " + types.length + " parameters but "
+                    + labels.length + " columns were given");
+        }
+        this.labels = labels.clone();
+        this.readers = new ColumnReader[types.length];
+        for (int i = 0; i < types.length; i++) {
+            readers[i] = readerFor(types[i]);
+        }
+        try {
+            ctor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(ctor);
+            this.constructor = handle.asType(handle.type().generic()).asSpreader(Object[].class, types.length);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot access " + ctor, e);
+        }
+    }
+
+    /**
+     * Maps through the constructor of {@code type} with one parameter per
+     * column; {@code columns} are the result-set labels in parameter order.
+     */
+    static <T> ConstructorRowMapper<T> of(Class<T> type, String... columns) {
+        for (Constructor<?> ctor : type.getDeclaredConstructors()) {
+            if (ctor.getParameterCount() == columns.length) {
+                @SuppressWarnings("unchecked")
+                Constructor<T> match = (Constructor<T>) ctor;
+                return new ConstructorRowMapper<>(match, columns);
+            }
+        }
+        throw new IllegalArgumentException(type.getName() + " has no constructor with "
+                + columns.length + " parameters");
+    }
+
+    /** Maps a record through its canonical constructor, using component names as column labels. */
+    static <T extends Record> ConstructorRowMapper<T> forRecord(Class<T> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] types = new Class<?>[components.length];
+        String[] columns = new String[components.length];
+        for (int i = 0; i < components.length; i++) {
+            types[i] = components[i].getType();
+            columns[i] = components[i].getName();
+        }
+        try {
+            return new ConstructorRowMapper<>(type.getDeclaredConstructor(types), columns);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No canonical constructor on " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public T map(ResultSet rs) throws SQLException {
+        return map(rs, columnsFor(rs));
+    }
+
+    /** Resolves the column labels against {@code rs} once and maps its rows by index. */
+    @Override
+    public RowMapper<T> bind(ResultSet rs) throws SQLException {
+        int[] columns = columnsFor(rs);
+        return row -> map(row, columns);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T map(ResultSet rs, int[] columns) throws SQLException {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = readers[i].read(rs, columns[i]);
+        }
+        try {
+            return (T) constructor.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("Row constructor failed: " + e.getMessage(), e);
+        }
+    }
+
+    private int[] columnsFor(ResultSet rs) throws SQLException {
+        int[] columns = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            columns[i] = rs.findColumn(labels[i]);
+        }
+        return columns;
+    }
+
+    private static ColumnReader readerFor(Class<?> type) {
+        if (type == int.class) {
+            return ResultSet::getInt;
+        } else if (type == long.class) {
+            return ResultSet::getLong;
+        } else if (type == double.class) {
+            return ResultSet::getDouble;
+        } else if (type == boolean.class) {
+            return ResultSet::getBoolean;
+        } else if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else if (type.isPrimitive()) {
+            throw new IllegalArgumentException("Unsupported primitive column type: " + type
+                    + " (supported: " + Arrays.asList(int.class, long.class, double.class, boolean.class) + ")");
+        }
+        return (rs, column) -> rs.getObject(column, type);
+    }
+}
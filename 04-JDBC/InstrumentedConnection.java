@@ -0,0 +1,166 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps a connection so every statement it creates reports to a
+ * {@link QueryMetrics}: execution time, rows read or updated, bind parameter
+ * count and failures. Query time is measured until the result set is closed,
+ * so it includes fetching the rows.
+ */
+final class InstrumentedConnection {
+
+    private InstrumentedConnection() {
+    }
+
+    static Connection wrap(Connection connection, QueryMetrics metrics) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = delegate(connection, method, args);
+            String name = method.getName();
+            if (result instanceof Statement
+                    && (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                String sql = name.equals("createStatement") ? null : (String) args[0];
+                Class<? extends Statement> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return proxy(type, new StatementHandler((Statement) result, sql, metrics));
+            }
+            return result;
+        });
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private final QueryMetrics metrics;
+        private int bindParameters;
+        private ResultSetHandler openResult;
+
+        StatementHandler(Statement statement, String preparedSql, QueryMetrics metrics) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bindParameters = Math.max(bindParameters, (Integer) args[0]);
+                return delegate(statement, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                bindParameters = 0;
+            }
+            if (name.equals("close")) {
+                finishOpenResult();
+                return delegate(statement, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return delegate(statement, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            finishOpenResult();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = delegate(statement, method, args);
+            } catch (SQLException e) {
+                metrics.onStatement(String.valueOf(sql), System.nanoTime() - start, -1, bindParameters, e);
+                throw e;
+            }
+            if (result instanceof ResultSet) {
+                openResult = new ResultSetHandler((ResultSet) result, String.valueOf(sql), start, bindParameters,
+                        metrics);
+                return proxy(ResultSet.class, openResult);
+            }
+            metrics.onStatement(String.valueOf(sql), System.nanoTime() - start, rowsOf(result), bindParameters, null);
+            return result;
+        }
+
+        private void finishOpenResult() {
+            if (openResult != null) {
+                openResult.finish();
+                openResult = null;
+            }
+        }
+
+        private static long rowsOf(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int n : (int[]) result) {
+                    rows += Math.max(n, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long n : (long[]) result) {
+                    rows += Math.max(n, 0);
+                }
+            } else {
+                return -1;
+            }
+            return rows;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet rs;
+        private final String sql;
+        private final long start;
+        private final int bindParameters;
+        private final QueryMetrics metrics;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet rs, String sql, long start, int bindParameters, QueryMetrics metrics) {
+            this.rs = rs;
+            this.sql = sql;
+            this.start = start;
+            this.bindParameters = bindParameters;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                finish();
+                return delegate(rs, method, args);
+            }
+            Object result = delegate(rs, method, args);
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                metrics.onStatement(sql, System.nanoTime() - start, rows, bindParameters, null);
+            }
+        }
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
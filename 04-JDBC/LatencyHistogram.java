@@ -0,0 +1,76 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the spirit of
+ * HdrHistogram: every power of two is split into 16 linear sub-buckets, so any
+ * recorded value is reported within about 6% while the whole histogram is a
+ * fixed array of 1024 counters.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        total.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    long getCount() {
+        return total.sum();
+    }
+
+    double getMeanMillis() {
+        long count = total.sum();
+        return count == 0 ? 0 : sum.sum() / 1_000_000.0 / count;
+    }
+
+    double getMaxMillis() {
+        return max.get() / 1_000_000.0;
+    }
+
+    /** Value at the given percentile (0-100) in milliseconds, from bucket lower bounds. */
+    double getPercentileMillis(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(lowerBound(i), max.get()) / 1_000_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (magnitude - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Sizing and timeout settings for {@link ConnectionPool}.
+ */
+class PoolConfig {
+
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long borrowTimeoutMillis = 5_000;
+    private long idleTimeoutMillis = 10 * 60_000;
+    private int validationTimeoutSeconds = 2;
+    private int statementCacheSize = 64;
+
+    /** Connections opened at startup and kept open by idle eviction. */
+    public PoolConfig minIdle(int minIdle) {
+        this.minIdle = minIdle;
+        return this;
+    }
+
+    /** Upper bound on open connections (borrowed plus idle). */
+    public PoolConfig maxSize(int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /** How long a borrower waits for a free connection before failing. */
+    public PoolConfig borrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        return this;
+    }
+
+    /** Idle connections above {@code minIdle} are closed after this long unused. */
+    public PoolConfig idleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        return this;
+    }
+
+    /** Timeout for the {@code Connection.isValid} check done on borrow. */
+    public PoolConfig validationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        return this;
+    }
+
+    /** Prepared statements cached per connection; 0 disables the cache. */
+    public PoolConfig statementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+        return this;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    void validate() {
+        if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException(
+                    "Invalid pool sizes: minIdle=" + minIdle + ", maxSize=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative: " + statementCacheSize);
+        }
+        if (borrowTimeoutMillis < 0 || idleTimeoutMillis <= 0 || validationTimeoutSeconds < 0) {
+            throw new IllegalArgumentException("Pool timeouts must not be negative");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Represents database connection and operations for PostgreSQL.
+ */
+class PostgresDatabase implements AutoCloseable {
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final PoolConfig poolConfig;
+    private final ReplicaConfig replicaConfig;
+    private ConnectionPool pool;
+    private ReplicaRouter replicas;
+    private volatile QueryMetrics queryMetrics = QueryMetrics.NONE;
+
+    public PostgresDatabase(String url, String username, String password) {
+        this(url, username, password, new PoolConfig());
+    }
+
+    public PostgresDatabase(String url, String username, String password, PoolConfig poolConfig) {
+        this(url, username, password, poolConfig, new ReplicaConfig());
+    }
+
+    /** Creates a database whose reads are spread over the replicas in {@code replicaConfig}. */
+    public PostgresDatabase(String url, String username, String password, PoolConfig poolConfig,
+            ReplicaConfig replicaConfig) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.poolConfig = poolConfig;
+        this.replicaConfig = replicaConfig;
+    }
+
+    /** Opens the connection pool, pre-warming its minimum idle connections, plus one pool per replica. */
+    public void connect() {
+        try {
+            pool = new ConnectionPool(url, username, password, poolConfig);
+            if (!replicaConfig.getUrls().isEmpty()) {
+                replicas = new ReplicaRouter(username, password, poolConfig, replicaConfig);
+            }
+            System.out.println("[INFO] Connected to PostgreSQL database.");
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to connect to database: " + e.getMessage());
+        }
+    }
+
+    /** Closes the connection pools. */
+    @Override
+    public void close() {
+        if (replicas != null) {
+            replicas.close();
+            replicas = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            System.out.println("[INFO] Disconnected from PostgreSQL database.");
+        }
+    }
+
+    /**
+     * Executes a SELECT query, passing each row to {@code callback}, and
+     * returns the number of rows. Statement, result set and connection are
+     * all closed before this method returns.
+     */
+    public int query(String sql, RowCallback callback, QueryOptions options, Object... params)
+            throws SQLException {
+        return query(null, sql, callback, options, params);
+    }
+
+    /** Like {@link #query(String, RowCallback, QueryOptions, Object...)}, honouring {@code readYourWrites}. */
+    public int query(ReadYourWrites readYourWrites, String sql, RowCallback callback, QueryOptions options,
+            Object... params) throws SQLException {
+        try (Connection connection = getReadConnection(readYourWrites);
+                PreparedStatement stmt = prepareQuery(connection, sql, options, params);
+                ResultSet rs = stmt.executeQuery()) {
+            int rows = 0;
+            while (rs.next()) {
+                callback.row(rs);
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Executes a SELECT query and returns its rows as a lazy stream. The stream
+     * owns the connection, statement and result set and releases them when it
+     * is closed, so it must be used in try-with-resources. With a non-zero
+     * fetch size the query runs inside a transaction so that PostgreSQL
+     * streams it through a cursor instead of buffering every row.
+     */
+    public <T> Stream<T> queryStream(String sql, RowMapper<T> mapper, QueryOptions options, Object... params)
+            throws SQLException {
+        return queryStream(null, sql, mapper, options, params);
+    }
+
+    /** Like {@link #queryStream(String, RowMapper, QueryOptions, Object...)}, honouring {@code readYourWrites}. */
+    public <T> Stream<T> queryStream(ReadYourWrites readYourWrites, String sql, RowMapper<T> mapper,
+            QueryOptions options, Object... params) throws SQLException {
+        Connection connection = getReadConnection(readYourWrites);
+        PreparedStatement stmt = null;
+        try {
+            if (options.getFetchSize() > 0) {
+                connection.setAutoCommit(false);
+            }
+            stmt = prepareQuery(connection, sql, options, params);
+            ResultSet rs = stmt.executeQuery();
+            return ResultSetStream.of(rs, mapper, stmt, connection);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                ResultSetStream.closeAll(stmt, connection);
+            } catch (IllegalStateException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static PreparedStatement prepareQuery(Connection connection, String sql, QueryOptions options,
+            Object... params) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(options.getFetchSize());
+            stmt.setQueryTimeout(options.getTimeoutSeconds());
+            stmt.setMaxRows(options.getMaxRows());
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            return stmt;
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    /** Executes an INSERT/UPDATE/DELETE query and returns affected rows. */
+    public int executeUpdate(String query) throws SQLException {
+        try (Connection connection = getConnection();
+                Statement stmt = connection.createStatement()) {
+            return stmt.executeUpdate(query);
+        }
+    }
+
+    /**
+     * Borrows a primary connection from the pool. Callers must close it
+     * (ideally with try-with-resources) to hand it back.
+     */
+    public Connection getConnection() throws SQLException {
+        return getConnection(null);
+    }
+
+    /**
+     * Borrows a primary connection for writes. Its commits, and handing it
+     * back, mark {@code readYourWrites}, which then keeps reads made with it
+     * on the primary for the configured window.
+     */
+    public Connection getConnection(ReadYourWrites readYourWrites) throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database is not connected");
+        }
+        long start = System.nanoTime();
+        Connection connection = instrument(pool.borrow(), start);
+        return readYourWrites == null ? connection : readYourWrites.track(connection);
+    }
+
+    /**
+     * Borrows a connection for reads: from a replica when one is configured
+     * and healthy, and otherwise from the primary. Callers must close it.
+     */
+    public Connection getReadConnection() throws SQLException {
+        return getReadConnection(null);
+    }
+
+    /**
+     * Like {@link #getReadConnection()}, but uses the primary while
+     * {@code readYourWrites} saw a write within the read-your-writes window.
+     */
+    public Connection getReadConnection(ReadYourWrites readYourWrites) throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database is not connected");
+        }
+        long start = System.nanoTime();
+        ReplicaRouter router = replicas;
+        if (router != null && !isPinned(readYourWrites)) {
+            Connection replica = router.borrow();
+            if (replica != null) {
+                return instrument(replica, start);
+            }
+        }
+        return instrument(pool.borrow(), start);
+    }
+
+    /** Whether reads made with {@code readYourWrites} currently go to the primary. */
+    public boolean isPinned(ReadYourWrites readYourWrites) {
+        return readYourWrites != null
+                && readYourWrites.isPinned(TimeUnit.MILLISECONDS.toNanos(replicaConfig.getReadYourWritesMillis()));
+    }
+
+    private Connection instrument(Connection connection, long borrowStartNanos) {
+        QueryMetrics metrics = queryMetrics;
+        if (metrics == QueryMetrics.NONE) {
+            return connection;
+        }
+        metrics.onPoolWait(System.nanoTime() - borrowStartNanos);
+        return InstrumentedConnection.wrap(connection, metrics);
+    }
+
+    /** Reports pool waits and every statement run on borrowed connections to {@code metrics}. */
+    public void setQueryMetrics(QueryMetrics metrics) {
+        this.queryMetrics = metrics == null ? QueryMetrics.NONE : metrics;
+    }
+
+    /** Returns the connection pool, for metrics. */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /** Returns the replica router, for metrics, or {@code null} when no replicas are configured. */
+    public ReplicaRouter getReplicas() {
+        return replicas;
+    }
+}
@@ -0,0 +1,24 @@
+import java.sql.SQLException;
+
+/**
+ * Receives timing events from instrumented connections (see
+ * {@link InstrumentedConnection}). Implementations must be thread-safe.
+ */
+interface QueryMetrics {
+
+    /** Metrics sink that ignores everything. */
+    QueryMetrics NONE = new QueryMetrics() {
+    };
+
+    /**
+     * Called once per executed statement. For queries the time runs until the
+     * result set is closed and {@code rows} is the number of rows read; for
+     * updates it is the update count. {@code error} is null on success.
+     */
+    default void onStatement(String sql, long elapsedNanos, long rows, int bindParameters, SQLException error) {
+    }
+
+    /** Called after each connection borrow with the time spent waiting for it. */
+    default void onPoolWait(long waitNanos) {
+    }
+}
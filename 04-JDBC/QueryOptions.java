@@ -0,0 +1,40 @@
+/**
+ * Per-query settings for {@link PostgresDatabase#query} and
+ * {@link PostgresDatabase#queryStream}.
+ */
+class QueryOptions {
+
+    private int fetchSize;
+    private int timeoutSeconds;
+    private int maxRows;
+
+    /** Rows fetched per round trip; 0 leaves the driver default (PostgreSQL: all rows at once). */
+    public QueryOptions fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /** Seconds before the driver cancels the query; 0 means no limit. */
+    public QueryOptions timeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    /** Upper bound on rows returned; 0 means no limit. */
+    public QueryOptions maxRows(int maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+}
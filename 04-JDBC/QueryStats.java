@@ -0,0 +1,156 @@
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Default {@link QueryMetrics}: per-SQL latency histograms, row and error
+ * counts, a pool wait histogram, and a slow-query log.
+ *
+ * SQL text is normalized before it is used as a key or logged: string and
+ * numeric literals become {@code ?}, so values never reach the log and
+ * statements that differ only in literals share one entry. Bind parameters are
+ * never logged, only counted. Normalized text is cached per raw SQL string,
+ * so prepared statements that run repeatedly skip the regular expressions.
+ */
+class QueryStats implements QueryMetrics, QueryStatsMXBean {
+
+    /** Distinct statements tracked individually; the rest are pooled under one key. */
+    static final int MAX_TRACKED_STATEMENTS = 1000;
+
+    /** Raw SQL strings whose normalized form is cached; literal-laden SQL beyond this is normalized each time. */
+    static final int MAX_NORMALIZED_CACHE = 4 * MAX_TRACKED_STATEMENTS;
+
+    private static final String OTHER = "<other statements>";
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final class SqlStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, SqlStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final LatencyHistogram poolWait = new LatencyHistogram();
+    private final LongAdder statementCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+    private volatile long slowThresholdNanos;
+
+    public QueryStats(long slowQueryThresholdMillis) {
+        setSlowQueryThresholdMillis(slowQueryThresholdMillis);
+    }
+
+    @Override
+    public void onStatement(String sql, long elapsedNanos, long rows, int bindParameters, SQLException error) {
+        String key = normalized.get(sql);
+        if (key == null) {
+            key = normalize(sql);
+            if (normalized.size() < MAX_NORMALIZED_CACHE) {
+                normalized.putIfAbsent(sql, key);
+            }
+        }
+        SqlStats stats = statements.get(key);
+        if (stats == null) {
+            stats = statements.size() < MAX_TRACKED_STATEMENTS
+                    ? statements.computeIfAbsent(key, k -> new SqlStats())
+                    : statements.computeIfAbsent(OTHER, k -> new SqlStats());
+        }
+        stats.latency.record(elapsedNanos);
+        statementCount.increment();
+        if (rows > 0) {
+            stats.rows.add(rows);
+        }
+        if (error != null) {
+            stats.errors.increment();
+            errorCount.increment();
+        }
+        if (elapsedNanos >= slowThresholdNanos) {
+            slowCount.increment();
+            System.err.printf("[WARN] Slow query (%.1f ms, %d row(s)%s): %s [%d bind parameter(s) redacted]%n",
+                    elapsedNanos / 1_000_000.0, Math.max(rows, 0), error == null ? "" : ", failed",
+                    key, bindParameters);
+        }
+    }
+
+    @Override
+    public void onPoolWait(long waitNanos) {
+        poolWait.record(waitNanos);
+    }
+
+    /** Registers this instance with the platform MBean server under {@code jdbc:type=QueryStats,name=<name>}. */
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("jdbc:type=QueryStats,name=" + ObjectName.quote(name)));
+        } catch (JMException e) {
+            System.err.println("[ERROR] Failed to register query stats MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getStatementCount() {
+        return statementCount.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowCount.sum();
+    }
+
+    @Override
+    public double getPoolWaitP99Millis() {
+        return poolWait.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getPoolWaitMaxMillis() {
+        return poolWait.getMaxMillis();
+    }
+
+    @Override
+    public String[] getStatementSummaries() {
+        return statements.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().latency.getCount(), a.getValue().latency.getCount()))
+                .map(entry -> {
+                    SqlStats stats = entry.getValue();
+                    LatencyHistogram latency = stats.latency;
+                    return String.format("count=%d errors=%d rows=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms | %s",
+                            latency.getCount(), stats.errors.sum(), stats.rows.sum(), latency.getMeanMillis(),
+                            latency.getPercentileMillis(50), latency.getPercentileMillis(99),
+                            latency.getMaxMillis(), entry.getKey());
+                })
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return slowThresholdNanos / 1_000_000;
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("thresholdMillis must not be negative: " + thresholdMillis);
+        }
+        this.slowThresholdNanos = thresholdMillis * 1_000_000;
+    }
+
+    static String normalize(String sql) {
+        String redacted = STRING_LITERAL.matcher(sql).replaceAll("?");
+        redacted = NUMBER_LITERAL.matcher(redacted).replaceAll("?");
+        return WHITESPACE.matcher(redacted).replaceAll(" ").trim();
+    }
+}
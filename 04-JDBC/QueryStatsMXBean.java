@@ -0,0 +1,22 @@
+/**
+ * JMX view of {@link QueryStats}.
+ */
+public interface QueryStatsMXBean {
+
+    long getStatementCount();
+
+    long getErrorCount();
+
+    long getSlowQueryCount();
+
+    double getPoolWaitP99Millis();
+
+    double getPoolWaitMaxMillis();
+
+    /** One line per SQL: count, errors, rows, mean/p50/p99/max latency. */
+    String[] getStatementSummaries();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+}
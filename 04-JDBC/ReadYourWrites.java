@@ -0,0 +1,75 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/**
+ * A caller's session token: remembers when the session last wrote to the
+ * primary, so that {@link PostgresDatabase#getReadConnection(ReadYourWrites)}
+ * keeps that session's reads on the primary until replicas have had time to
+ * catch up. Other sessions keep reading from replicas.
+ *
+ * The time is taken when a write transaction commits and when the primary
+ * connection is handed back, not when it is borrowed, so a long write is
+ * still covered after it finishes.
+ *
+ * {@link UserRepository} pins and checks the session {@link #current()} on
+ * the calling thread. Each thread starts with a session of its own; a caller
+ * whose session spans threads (say, one per signed-in user) creates a token
+ * and {@link #bind() binds} it around its calls. {@link AsyncUserRepository}
+ * carries the submitting caller's session over to its tasks.
+ */
+final class ReadYourWrites {
+
+    /** Undoes a {@link #bind()}; closing it restores the session bound before. */
+    interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final ThreadLocal<ReadYourWrites> CURRENT = ThreadLocal.withInitial(ReadYourWrites::new);
+
+    // System.nanoTime() of the last write; meaningless while written is false.
+    private volatile long lastWriteNanos;
+    private volatile boolean written;
+
+    /** The session bound on the calling thread, or the thread's own session if none is. */
+    static ReadYourWrites current() {
+        return CURRENT.get();
+    }
+
+    /** Makes this the calling thread's session until the returned scope is closed. */
+    Scope bind() {
+        ReadYourWrites previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> CURRENT.set(previous);
+    }
+
+    /** Records a write that is visible on the primary now. */
+    public void markWritten() {
+        lastWriteNanos = System.nanoTime();
+        written = true;
+    }
+
+    /** Whether the last write happened less than {@code windowNanos} ago. */
+    public boolean isPinned(long windowNanos) {
+        return written && System.nanoTime() - lastWriteNanos < windowNanos;
+    }
+
+    /** Wraps a primary connection so that its commits and its release mark this object. */
+    Connection track(Connection primary) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(primary, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    String name = method.getName();
+                    if (name.equals("commit") || name.equals("close")) {
+                        markWritten();
+                    }
+                    return result;
+                });
+    }
+}
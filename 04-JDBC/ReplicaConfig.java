@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-replica settings for {@link PostgresDatabase}. Each replica gets its
+ * own {@link ConnectionPool} sized by the database's {@link PoolConfig}.
+ */
+class ReplicaConfig {
+
+    /** How a read picks among healthy replicas. */
+    enum Policy {
+        /** Rotate through replicas in turn. */
+        ROUND_ROBIN,
+        /** Pick the replica with the fewest borrowed connections. */
+        LEAST_LOADED
+    }
+
+    private final List<String> urls = new ArrayList<>();
+    private Policy policy = Policy.ROUND_ROBIN;
+    private long readYourWritesMillis = 2_000;
+    private long healthCheckIntervalMillis = 5_000;
+
+    /** Adds a replica, reached with the same credentials as the primary. */
+    public ReplicaConfig addReplica(String url) {
+        urls.add(url);
+        return this;
+    }
+
+    public ReplicaConfig policy(Policy policy) {
+        this.policy = policy;
+        return this;
+    }
+
+    /**
+     * After a {@link ReadYourWrites} session commits to the primary, that
+     * session's reads stay on the primary for this long so they see its own
+     * writes despite replica lag; other sessions keep using replicas. The
+     * window starts at the commit, or when the primary connection is handed
+     * back, so long writes are covered. 0 disables pinning.
+     */
+    public ReplicaConfig readYourWritesMillis(long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+        return this;
+    }
+
+    /** How often replicas are probed; failed ones return to rotation once a probe succeeds. */
+    public ReplicaConfig healthCheckIntervalMillis(long healthCheckIntervalMillis) {
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+        return this;
+    }
+
+    public List<String> getUrls() {
+        return Collections.unmodifiableList(urls);
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long getReadYourWritesMillis() {
+        return readYourWritesMillis;
+    }
+
+    public long getHealthCheckIntervalMillis() {
+        return healthCheckIntervalMillis;
+    }
+
+    void validate() {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy must not be null");
+        }
+        if (readYourWritesMillis < 0 || healthCheckIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Replica timings must be positive: readYourWritesMillis="
+                    + readYourWritesMillis + ", healthCheckIntervalMillis=" + healthCheckIntervalMillis);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out read connections from a set of replicas.
+ *
+ * A replica whose borrow fails is taken out of rotation at once; a background
+ * task probes every replica at the configured interval and puts it back when
+ * a connection can be opened and validated again. Replicas that are down at
+ * startup simply start out of rotation. A replica whose pool is exhausted is
+ * skipped without waiting. When no replica is usable, {@link #borrow()}
+ * returns {@code null} and the caller reads from the primary.
+ */
+class ReplicaRouter implements AutoCloseable {
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaConfig.Policy policy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder failovers = new LongAdder();
+    private final ScheduledExecutorService healthChecker;
+
+    ReplicaRouter(String username, String password, PoolConfig poolConfig, ReplicaConfig config) {
+        config.validate();
+        this.policy = config.getPolicy();
+        for (String url : config.getUrls()) {
+            Replica replica = new Replica(url, username, password, poolConfig);
+            replica.check();
+            if (!replica.healthy) {
+                System.err.println("[WARN] Replica " + url + " is unavailable; reads will skip it until it recovers.");
+            }
+            replicas.add(replica);
+        }
+        // A thread per replica, so one host stuck in a connect timeout does not delay the others' recovery.
+        healthChecker = Executors.newScheduledThreadPool(Math.max(1, replicas.size()), runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.getHealthCheckIntervalMillis();
+        for (Replica replica : replicas) {
+            healthChecker.scheduleWithFixedDelay(replica::check, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrows a connection from a healthy replica chosen by the policy, trying
+     * the others if it fails. Returns {@code null} if none can serve.
+     */
+    public Connection borrow() {
+        for (Replica replica : candidates()) {
+            try {
+                // No waiting: a busy replica is skipped rather than stalling the read.
+                return replica.pool.borrow(0);
+            } catch (SQLTransientConnectionException e) {
+                // Saturated rather than down: leave it in rotation and try another.
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+            failovers.increment();
+        }
+        return null;
+    }
+
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    /** Reads that had to move past their first-choice replica. */
+    public long getFailoverCount() {
+        return failovers.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("policy=").append(policy)
+                .append(", failovers=").append(getFailoverCount());
+        for (Replica replica : replicas) {
+            out.append("\n  ").append(replica);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.close();
+        }
+    }
+
+    private List<Replica> candidates() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.size() > 1) {
+            if (policy == ReplicaConfig.Policy.LEAST_LOADED) {
+                healthy.sort(Comparator.comparingInt(replica -> replica.pool.getActiveCount()));
+            } else {
+                int start = Math.floorMod(next.getAndIncrement(), healthy.size());
+                List<Replica> rotated = new ArrayList<>(healthy.subList(start, healthy.size()));
+                rotated.addAll(healthy.subList(0, start));
+                healthy = rotated;
+            }
+        }
+        return healthy;
+    }
+
+    private static final class Replica {
+
+        private final String url;
+        private final String username;
+        private final String password;
+        private final PoolConfig poolConfig;
+        // Written only by the constructor's first check and the health-check thread.
+        private volatile ConnectionPool pool;
+        private volatile boolean healthy;
+
+        Replica(String url, String username, String password, PoolConfig poolConfig) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+            this.poolConfig = poolConfig;
+        }
+
+        void check() {
+            try {
+                if (pool == null) {
+                    pool = new ConnectionPool(url, username, password, poolConfig);
+                }
+                // borrow() validates idle connections and opens a new one if none survive.
+                try (Connection connection = pool.borrow()) {
+                    if (!connection.isValid(poolConfig.getValidationTimeoutSeconds())) {
+                        throw new SQLException("Connection failed validation");
+                    }
+                }
+                if (!healthy) {
+                    healthy = true;
+                    System.out.println("[INFO] Replica " + url + " is in rotation.");
+                }
+            } catch (SQLTransientConnectionException e) {
+                // Every connection is busy, which says nothing about its health.
+            } catch (SQLException | RuntimeException e) {
+                // Also catches runtime failures, which would otherwise cancel this replica's schedule.
+                markDown(e);
+            }
+        }
+
+        void markDown(Exception cause) {
+            if (healthy) {
+                System.err.println("[WARN] Replica " + url + " taken out of rotation: " + cause.getMessage());
+            }
+            healthy = false;
+        }
+
+        void close() {
+            healthy = false;
+            if (pool != null) {
+                pool.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return url + (healthy ? " UP " : " DOWN ") + (pool == null ? "(no pool)" : pool.toString());
+        }
+    }
+}
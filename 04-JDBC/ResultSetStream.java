@@ -0,0 +1,68 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Exposes an open {@link ResultSet} as a lazy {@link Stream}. Rows are read
+ * only as the stream pulls them, and closing the stream closes the result set
+ * together with every other resource handed in (statement, connection).
+ * Callers must therefore consume it in try-with-resources.
+ */
+final class ResultSetStream {
+
+    private ResultSetStream() {
+    }
+
+    /**
+     * @param resources closed in the given order after the result set, e.g.
+     *                  the statement and then the connection
+     */
+    static <T> Stream<T> of(ResultSet rs, RowMapper<T> mapper, AutoCloseable... resources) throws SQLException {
+        RowMapper<T> bound = mapper.bind(rs);
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(bound.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to read row: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeAll(rs, resources));
+    }
+
+    /** Closes everything, reporting the first failure after the rest have been attempted. */
+    static void closeAll(AutoCloseable first, AutoCloseable... rest) {
+        Exception failure = null;
+        AutoCloseable[] all = new AutoCloseable[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        for (AutoCloseable resource : all) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Failed to release query resources: " + failure.getMessage(), failure);
+        }
+    }
+}
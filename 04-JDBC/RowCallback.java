@@ -0,0 +1,12 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Handles one row of a query run by {@link PostgresDatabase#query}. The result
+ * set is only valid during the call.
+ */
+@FunctionalInterface
+interface RowCallback {
+
+    void row(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,20 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to an object.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+
+    /**
+     * Returns a mapper for the rows of {@code rs} only, letting
+     * implementations resolve column labels once per query instead of once
+     * per row. The default needs no setup and returns this mapper.
+     */
+    default RowMapper<T> bind(ResultSet rs) throws SQLException {
+        return this;
+    }
+}
@@ -0,0 +1,160 @@
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the {@code users} table and the indexes behind
+ * {@link UserRepository#findByEmail} and {@link UserRepository#findByNamePrefix},
+ * then checks that they are really there.
+ *
+ * Every statement is {@code IF NOT EXISTS}, so running this at each startup is
+ * safe. The name index is {@code (name text_pattern_ops, id)} on PostgreSQL:
+ * the operator class lets {@code LIKE 'prefix%'} use it under any collation,
+ * and queries that order by {@code name USING ~<~, id} read matches in index
+ * order, so a {@code LIMIT} stops early instead of sorting every match. Other
+ * databases get a plain {@code (name, id)} index.
+ *
+ * The unique email index cannot be built while two users share an email, so
+ * bootstrap looks for duplicates first and fails with a list of them; they
+ * must be merged or corrected before the application can start. Building an
+ * index locks out writes to the table while it runs, so on a large existing
+ * table create both ahead of time with {@code CREATE INDEX CONCURRENTLY}
+ * under the same names.
+ */
+class SchemaBootstrap {
+
+    static final String EMAIL_INDEX = "users_email_key";
+    static final String NAME_INDEX = "users_name_prefix_idx";
+    private static final int DUPLICATES_REPORTED = 5;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS users ("
+            + "id SERIAL PRIMARY KEY, "
+            + "name VARCHAR(100) NOT NULL, "
+            + "email VARCHAR(255) NOT NULL)";
+    private static final String CREATE_EMAIL_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + EMAIL_INDEX + " ON users (email)";
+    private static final String CREATE_NAME_INDEX_PG =
+            "CREATE INDEX IF NOT EXISTS " + NAME_INDEX + " ON users (name text_pattern_ops, id)";
+    private static final String CREATE_NAME_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + NAME_INDEX + " ON users (name, id)";
+
+    private final PostgresDatabase database;
+
+    public SchemaBootstrap(PostgresDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Creates whatever is missing, then {@link #verify() verifies} the result.
+     * Fails without changing anything if existing users share an email.
+     *
+     * On PostgreSQL the DDL runs in one transaction. Databases without
+     * transactional DDL commit each statement as it runs, so a failure there
+     * can leave the table without its indexes; since every statement is
+     * {@code IF NOT EXISTS}, running bootstrap again finishes the job.
+     */
+    public void bootstrap() throws SQLException {
+        try (Connection connection = database.getConnection()) {
+            boolean postgres = UserRepository.isPostgres(connection);
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_TABLE);
+                if (!indexes(connection).containsKey(EMAIL_INDEX)) {
+                    checkNoDuplicateEmails(stmt);
+                    stmt.execute(CREATE_EMAIL_INDEX);
+                }
+                stmt.execute(postgres ? CREATE_NAME_INDEX_PG : CREATE_NAME_INDEX);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        verify();
+        System.out.println("[INFO] Schema verified: users table and indexes are in place.");
+    }
+
+    /**
+     * Checks that the table exists, that the email index is unique, and, on
+     * PostgreSQL, that the name index is {@code (name text_pattern_ops, id)}.
+     */
+    public void verify() throws SQLException {
+        try (Connection connection = database.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            try (ResultSet rs = meta.getTables(null, null, usersTable(meta), new String[] { "TABLE" })) {
+                if (!rs.next()) {
+                    throw new SQLException("Table users does not exist");
+                }
+            }
+            Map<String, Boolean> uniqueByIndex = indexes(connection);
+            if (!Boolean.TRUE.equals(uniqueByIndex.get(EMAIL_INDEX))) {
+                throw new SQLException("Missing unique index " + EMAIL_INDEX + " on users (email)");
+            }
+            if (!uniqueByIndex.containsKey(NAME_INDEX)) {
+                throw new SQLException("Missing index " + NAME_INDEX + " on users (name, id)");
+            }
+            if (UserRepository.isPostgres(connection)) {
+                verifyPatternOps(connection);
+            }
+        }
+    }
+
+    // Index name (lower case) to whether it is unique.
+    private static Map<String, Boolean> indexes(Connection connection) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        Map<String, Boolean> uniqueByIndex = new HashMap<>();
+        try (ResultSet rs = meta.getIndexInfo(null, null, usersTable(meta), false, false)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                if (index != null) {
+                    uniqueByIndex.put(index.toLowerCase(), !rs.getBoolean("NON_UNIQUE"));
+                }
+            }
+        }
+        return uniqueByIndex;
+    }
+
+    private static String usersTable(DatabaseMetaData meta) throws SQLException {
+        return meta.storesUpperCaseIdentifiers() ? "USERS" : "users";
+    }
+
+    private static void checkNoDuplicateEmails(Statement stmt) throws SQLException {
+        String sql = "SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1"
+                + " ORDER BY COUNT(*) DESC, email";
+        List<String> examples = new ArrayList<>();
+        int duplicated = 0;
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                if (duplicated++ < DUPLICATES_REPORTED) {
+                    examples.add(rs.getString(1) + " (" + rs.getLong(2) + " users)");
+                }
+            }
+        }
+        if (duplicated > 0) {
+            throw new SQLException("Cannot create unique index " + EMAIL_INDEX + ": " + duplicated
+                    + " email(s) belong to more than one user, e.g. " + String.join(", ", examples)
+                    + ". Merge or correct them, then start again.");
+        }
+    }
+
+    private static void verifyPatternOps(Connection connection) throws SQLException {
+        String sql = "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema()"
+                + " AND tablename = 'users' AND indexname = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, NAME_INDEX);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || !rs.getString(1).contains("(name text_pattern_ops, id)")) {
+                    throw new SQLException("Index " + NAME_INDEX + " is not (name text_pattern_ops, id),"
+                            + " so prefix searches cannot read it in order");
+                }
+            }
+        }
+    }
+}
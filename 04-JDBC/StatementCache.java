@@ -0,0 +1,219 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL
+ * text plus the prepareStatement options. It lives as long as the pooled
+ * connection, so statements survive across borrows and the driver does not
+ * re-parse the same SQL for every call.
+ *
+ * Callers get a proxy whose {@code close()} clears parameters and batches,
+ * restores the statement's fetch and limit settings, and marks it free again
+ * instead of closing it. If the same SQL is
+ * already in use on the connection (e.g. a nested query), a plain uncached
+ * statement is handed out instead.
+ */
+class StatementCache {
+
+    /** Hit/miss counters shared by every cache in a pool. */
+    static final class Stats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+    }
+
+    /** The prepareStatement overload and its arguments; arrays are compared by content. */
+    private record Key(String sql, List<Class<?>> signature, List<Object> options) {
+
+        static Key of(Method method, Object[] args) {
+            List<Object> options = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof int[] indexes) {
+                    options.add(Arrays.stream(indexes).boxed().toList());
+                } else if (arg instanceof Object[] names) {
+                    options.add(Arrays.asList(names));
+                } else {
+                    options.add(arg);
+                }
+            }
+            return new Key((String) args[0], List.of(method.getParameterTypes()), options);
+        }
+    }
+
+    private static final class Entry {
+        final PreparedStatement physical;
+        // Settings as prepared, restored on release so one borrower's limits do not leak into the next.
+        final int maxRows;
+        final int fetchSize;
+        final int queryTimeout;
+        final int fetchDirection;
+        int checkout; // bumped on every hand-out so stale proxies can be detected
+        boolean inUse;
+        boolean evicted;
+
+        Entry(PreparedStatement physical) throws SQLException {
+            this.physical = physical;
+            this.maxRows = physical.getMaxRows();
+            this.fetchSize = physical.getFetchSize();
+            this.queryTimeout = physical.getQueryTimeout();
+            this.fetchDirection = physical.getFetchDirection();
+        }
+    }
+
+    /** One hand-out of a cached statement; stops working once closed. */
+    private final class Handle implements InvocationHandler {
+        final Entry entry;
+        final int checkout;
+
+        Handle(Entry entry) {
+            this.entry = entry;
+            this.checkout = entry.checkout;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean current;
+            synchronized (StatementCache.this) {
+                current = entry.inUse && entry.checkout == checkout;
+            }
+            switch (method.getName()) {
+                case "close":
+                    if (current) {
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return !current || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (!current) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    try {
+                        return method.invoke(entry.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    private final int capacity;
+    private final Stats stats;
+    private final Map<Key, Entry> entries;
+
+    StatementCache(int capacity, Stats stats) {
+        this.capacity = capacity;
+        this.stats = stats;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a prepared statement for {@code method}/{@code args}, one of the
+     * {@code Connection.prepareStatement} overloads.
+     */
+    synchronized PreparedStatement prepare(Connection physical, Method method, Object[] args) throws Throwable {
+        Key key = Key.of(method, args);
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            stats.hits.increment();
+            entry.inUse = true;
+            return proxy(entry);
+        }
+        stats.misses.increment();
+        PreparedStatement statement;
+        try {
+            statement = (PreparedStatement) method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (entry != null) {
+            return statement;
+        }
+        try {
+            entry = new Entry(statement);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        entry.inUse = true;
+        entries.put(key, entry);
+        evictOverflow();
+        return proxy(entry);
+    }
+
+    /** Marks every statement free; called when the connection returns to the pool. */
+    synchronized void releaseAll() throws SQLException {
+        for (Entry entry : entries.values()) {
+            if (entry.inUse) {
+                release(entry);
+            }
+        }
+    }
+
+    private synchronized void release(Entry entry) throws SQLException {
+        if (!entry.inUse) {
+            return;
+        }
+        entry.inUse = false;
+        if (entry.evicted) {
+            entry.physical.close();
+            return;
+        }
+        try {
+            ResultSet open = entry.physical.getResultSet();
+            if (open != null) {
+                open.close();
+            }
+            entry.physical.clearParameters();
+            entry.physical.clearBatch();
+            entry.physical.setMaxRows(entry.maxRows);
+            entry.physical.setFetchSize(entry.fetchSize);
+            entry.physical.setQueryTimeout(entry.queryTimeout);
+            entry.physical.setFetchDirection(entry.fetchDirection);
+        } catch (SQLException e) {
+            entries.values().remove(entry);
+            entry.physical.close();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            stats.evictions.increment();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                try {
+                    eldest.physical.close();
+                } catch (SQLException e) {
+                    System.err.println("[WARN] Failed to close evicted statement: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private PreparedStatement proxy(Entry entry) {
+        entry.checkout++;
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, new Handle(entry));
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of users by id with a time-to-live per entry.
+ * Every invalidation bumps a version under the cache lock, so a load that
+ * started before an invalidation can be refused by {@link #putIfCurrent}.
+ */
+class UserCache {
+
+    private static final class Entry {
+        final User user;
+        final long expiresAtNanos;
+
+        Entry(User user, long expiresAtNanos) {
+            this.user = user;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final long ttlNanos;
+    private final Map<Integer, Entry> entries;
+    private long version;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    UserCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxSize and ttlMillis must be positive");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the cached user, or null on a miss or an expired entry. */
+    synchronized User get(int id) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.user;
+        }
+        if (entry != null) {
+            entries.remove(id);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Current invalidation version; read it before loading a user from the database. */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Caches {@code user} unless an invalidation happened since {@code seenVersion}
+     * was read. Returns whether the user was cached.
+     */
+    synchronized boolean putIfCurrent(User user, long seenVersion) {
+        if (version != seenVersion) {
+            return false;
+        }
+        entries.put(user.getId(), new Entry(user, System.nanoTime() + ttlNanos));
+        return true;
+    }
+
+    synchronized void invalidate(int id) {
+        version++;
+        entries.remove(id);
+    }
+
+    synchronized void invalidate(int[] ids) {
+        version++;
+        for (int id : ids) {
+            entries.remove(id);
+        }
+    }
+
+    synchronized void invalidate(Collection<User> users) {
+        version++;
+        for (User user : users) {
+            entries.remove(user.getId());
+        }
+    }
+
+    synchronized void invalidateAll() {
+        version++;
+        entries.clear();
+    }
+
+    void recordLoad(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getAverageLoadMillis() {
+        long count = loads.sum();
+        return count == 0 ? 0 : loadNanos.sum() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, hitRatio=%.3f, hits=%d, misses=%d, evictions=%d, avgLoad=%.3f ms",
+                size(), getHitRatio(), getHits(), getMisses(), getEvictions(), getAverageLoadMillis());
+    }
+}
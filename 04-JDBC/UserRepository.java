@@ -0,0 +1,574 @@
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Handles CRUD operations for User data in PostgreSQL.
+ */
+class UserRepository {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    // PostgreSQL's wire protocol caps a statement at this many bind parameters.
+    private static final int MAX_BIND_PARAMETERS = 65_535;
+
+    private static final RowMapper<User> USER_MAPPER = ConstructorRowMapper.of(User.class, "id", "name", "email");
+
+    private final PostgresDatabase database;
+    private final int batchSize;
+
+    public UserRepository(PostgresDatabase database) {
+        this(database, DEFAULT_BATCH_SIZE);
+    }
+
+    /** Creates a repository whose bulk operations commit every {@code batchSize} rows. */
+    public UserRepository(PostgresDatabase database, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    PostgresDatabase getDatabase() {
+        return database;
+    }
+
+    /** Primary connection whose commits pin the caller's {@link ReadYourWrites} session to the primary. */
+    Connection writeConnection() throws SQLException {
+        return database.getConnection(ReadYourWrites.current());
+    }
+
+    /** Replica connection, or the primary while the caller's session has written recently. */
+    Connection readConnection() throws SQLException {
+        return database.getReadConnection(ReadYourWrites.current());
+    }
+
+    /*
+     * The public methods report failures on stderr and carry on, which suits
+     * the interactive App. The single-row writes, getUserById, getUsersAfter,
+     * insertUsers and updateUsers also have a package-private do* counterpart
+     * that throws instead, for callers such as AsyncUserRepository that must
+     * pass errors on; subclasses override the do* methods so both paths see
+     * their behaviour. The other methods have no do* form.
+     */
+
+    /** Inserts a new user record into the database. */
+    public void insertUser(String name, String email) {
+        try {
+            doInsertUser(name, email);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to insert user: " + e.getMessage());
+        }
+    }
+
+    /** Inserts a user and returns the number of rows inserted. */
+    int doInsertUser(String name, String email) throws SQLException {
+        String sql = "INSERT INTO users (name, email) VALUES (?, ?)";
+        try (Connection connection = writeConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            stmt.setString(2, email);
+            int rows = stmt.executeUpdate();
+            System.out.printf("[INFO] Inserted %d user(s) into database.%n", rows);
+            return rows;
+        }
+    }
+
+    /** Updates an existing user record by ID. */
+    public void updateUser(int id, String name, String email) {
+        try {
+            doUpdateUser(id, name, email);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to update user: " + e.getMessage());
+        }
+    }
+
+    /** Updates a user by id and returns the number of rows updated. */
+    int doUpdateUser(int id, String name, String email) throws SQLException {
+        String sql = "UPDATE users SET name = ?, email = ? WHERE id = ?";
+        try (Connection connection = writeConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, name);
+            stmt.setString(2, email);
+            stmt.setInt(3, id);
+            int rows = stmt.executeUpdate();
+            System.out.printf("[INFO] Updated %d user(s).%n", rows);
+            return rows;
+        }
+    }
+
+    /** Deletes a user record by ID. */
+    public void deleteUser(int id) {
+        try {
+            doDeleteUser(id);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to delete user: " + e.getMessage());
+        }
+    }
+
+    /** Deletes a user by id and returns the number of rows deleted. */
+    int doDeleteUser(int id) throws SQLException {
+        String sql = "DELETE FROM users WHERE id = ?";
+        try (Connection connection = writeConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            int rows = stmt.executeUpdate();
+            System.out.printf("[INFO] Deleted %d user(s).%n", rows);
+            return rows;
+        }
+    }
+
+    /** Retrieves one user by ID, or null if there is none. */
+    public User getUserById(int id) {
+        try {
+            return doGetUserById(id);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to fetch user: " + e.getMessage());
+            return null;
+        }
+    }
+
+    User doGetUserById(int id) throws SQLException {
+        String sql = "SELECT id, name, email FROM users WHERE id = ?";
+        try (Connection connection = readConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? USER_MAPPER.map(rs) : null;
+            }
+        }
+    }
+
+    /** Retrieves all users from the database. */
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT id, name, email FROM users ORDER BY id";
+        try (Connection connection = readConnection();
+                Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMapper<User> mapper = USER_MAPPER.bind(rs);
+            while (rs.next()) {
+                users.add(mapper.map(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to fetch users: " + e.getMessage());
+        }
+        return users;
+    }
+
+    /**
+     * Returns up to {@code limit} users with id greater than {@code lastId},
+     * ordered by id. Pass 0 for the first page and the last id of each page
+     * for the next one; every page is an index range scan on the primary key.
+     */
+    public List<User> getUsersAfter(int lastId, int limit) {
+        return getUsersAfter(lastId, limit, null, null);
+    }
+
+    /**
+     * Keyset page as {@link #getUsersAfter(int, int)}, keeping only users whose
+     * name and/or email start with the given prefixes (null means no filter).
+     */
+    public List<User> getUsersAfter(int lastId, int limit, String namePrefix, String emailPrefix) {
+        try {
+            return doGetUsersAfter(lastId, limit, namePrefix, emailPrefix);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to fetch users page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    List<User> doGetUsersAfter(int lastId, int limit, String namePrefix, String emailPrefix) throws SQLException {
+        List<User> users = new ArrayList<>(Math.min(limit, DEFAULT_FETCH_SIZE));
+        StringBuilder sql = new StringBuilder("SELECT id, name, email FROM users WHERE id > ?");
+        if (namePrefix != null) {
+            sql.append(" AND name LIKE ? ESCAPE '\\'");
+        }
+        if (emailPrefix != null) {
+            sql.append(" AND email LIKE ? ESCAPE '\\'");
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        try (Connection connection = readConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            stmt.setInt(index++, lastId);
+            if (namePrefix != null) {
+                stmt.setString(index++, likePrefix(namePrefix));
+            }
+            if (emailPrefix != null) {
+                stmt.setString(index++, likePrefix(emailPrefix));
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<User> mapper = USER_MAPPER.bind(rs);
+                while (rs.next()) {
+                    users.add(mapper.map(rs));
+                }
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Looks a user up by email through the unique index created by
+     * {@link SchemaBootstrap}. Returns {@code null} if there is no match.
+     */
+    public User findByEmail(String email) {
+        String sql = "SELECT id, name, email FROM users WHERE email = ?";
+        try (Connection connection = readConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return USER_MAPPER.map(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to fetch user by email: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Returns up to {@code limit} users whose name starts with {@code prefix},
+     * ordered by name. Both the anchored {@code LIKE} and the order come from
+     * the {@code (name text_pattern_ops, id)} index created by
+     * {@link SchemaBootstrap}, so only the returned rows are read. On
+     * PostgreSQL names are therefore ordered bytewise ({@code ~<~}) rather
+     * than by the database collation.
+     */
+    public List<User> findByNamePrefix(String prefix, int limit) {
+        List<User> users = new ArrayList<>(Math.min(limit, DEFAULT_FETCH_SIZE));
+        try (Connection connection = readConnection();
+                PreparedStatement stmt = connection.prepareStatement(namePrefixSql(isPostgres(connection)))) {
+            stmt.setString(1, likePrefix(prefix));
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<User> mapper = USER_MAPPER.bind(rs);
+                while (rs.next()) {
+                    users.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to fetch users by name prefix: " + e.getMessage());
+        }
+        return users;
+    }
+
+    private static String namePrefixSql(boolean postgres) {
+        // A text_pattern_ops index can only supply the order of its own ~<~ operator.
+        String order = postgres ? "name USING ~<~, id" : "name, id";
+        return "SELECT id, name, email FROM users WHERE name LIKE ? ESCAPE '\\' ORDER BY " + order + " LIMIT ?";
+    }
+
+    /** Escapes LIKE wildcards in {@code prefix} and appends {@code %}. */
+    static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Streams all users ordered by id, fetching {@link #DEFAULT_FETCH_SIZE} rows
+     * per round trip. See {@link #streamAllUsers(int)}.
+     */
+    public Stream<User> streamAllUsers() {
+        return streamAllUsers(DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Streams all users ordered by id without loading the table into memory.
+     * The query runs with autocommit off so the driver uses a server-side
+     * cursor and fetches {@code fetchSize} rows at a time. The stream holds a
+     * pooled connection until it is closed, so use try-with-resources.
+     */
+    public Stream<User> streamAllUsers(int fetchSize) {
+        String sql = "SELECT id, name, email FROM users ORDER BY id";
+        try {
+            return database.queryStream(ReadYourWrites.current(), sql, USER_MAPPER, new QueryOptions().fetchSize(fetchSize));
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to stream users: " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Inserts users with JDBC batching, one transaction per chunk of
+     * {@code batchSize} rows. User ids are ignored. Returns the generated ids
+     * in input order; if a chunk fails it is rolled back and only the ids of
+     * the chunks committed before it are returned.
+     */
+    public List<Integer> insertUsers(Collection<User> users) {
+        List<Integer> ids = new ArrayList<>(users.size());
+        try {
+            doInsertUsers(users, ids);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to insert users: " + e.getMessage());
+        }
+        return ids;
+    }
+
+    /**
+     * As {@link #insertUsers}, but appends each committed chunk's ids to
+     * {@code ids} and throws on failure.
+     */
+    void doInsertUsers(Collection<User> users, List<Integer> ids) throws SQLException {
+        String sql = "INSERT INTO users (name, email) VALUES (?, ?)";
+        try (Connection connection = writeConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql, new String[] { "id" })) {
+            connection.setAutoCommit(false);
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                List<Integer> chunkIds = new ArrayList<>(batchSize);
+                for (int n = 0; n < batchSize && it.hasNext(); n++) {
+                    User user = it.next();
+                    stmt.setString(1, user.getName());
+                    stmt.setString(2, user.getEmail());
+                    stmt.addBatch();
+                }
+                try {
+                    stmt.executeBatch();
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            chunkIds.add(keys.getInt(1));
+                        }
+                    }
+                    connection.commit();
+                    ids.addAll(chunkIds);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+            System.out.printf("[INFO] Inserted %d user(s) into database.%n", ids.size());
+        }
+    }
+
+    /**
+     * Updates users by id with JDBC batching, one transaction per chunk of
+     * {@code batchSize} rows. Returns the number of rows updated; a failing
+     * chunk is rolled back and stops the run.
+     */
+    public int updateUsers(Collection<User> users) {
+        int[] updated = { 0 };
+        try {
+            doUpdateUsers(users, rows -> updated[0] += rows);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to update users: " + e.getMessage());
+        }
+        return updated[0];
+    }
+
+    /**
+     * As {@link #updateUsers}, but passes each committed chunk's row count to
+     * {@code committed} and throws on failure.
+     */
+    void doUpdateUsers(Collection<User> users, IntConsumer committed) throws SQLException {
+        int updated = 0;
+        String sql = "UPDATE users SET name = ?, email = ? WHERE id = ?";
+        try (Connection connection = writeConnection();
+                PreparedStatement stmt = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            Iterator<User> it = users.iterator();
+            while (it.hasNext()) {
+                for (int n = 0; n < batchSize && it.hasNext(); n++) {
+                    User user = it.next();
+                    stmt.setString(1, user.getName());
+                    stmt.setString(2, user.getEmail());
+                    stmt.setInt(3, user.getId());
+                    stmt.addBatch();
+                }
+                try {
+                    int chunkRows = 0;
+                    for (int rows : stmt.executeBatch()) {
+                        // Some drivers report SUCCESS_NO_INFO (-2) instead of a row count.
+                        chunkRows += rows == Statement.SUCCESS_NO_INFO ? 1 : rows;
+                    }
+                    connection.commit();
+                    updated += chunkRows;
+                    committed.accept(chunkRows);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+            System.out.printf("[INFO] Updated %d user(s).%n", updated);
+        }
+    }
+
+    /**
+     * Inserts users whose id is new and updates the name and email of those
+     * whose id exists, using one multi-row statement and transaction per
+     * chunk of {@code batchSize} rows. On PostgreSQL this is
+     * {@code INSERT ... ON CONFLICT (id) DO UPDATE}; other databases get a
+     * standard {@code MERGE}. If an id repeats within a chunk, the last
+     * occurrence wins. Afterwards the id sequence is moved past the largest
+     * id, so later inserts do not collide with upserted rows.
+     * Returns the number of rows inserted or updated; a failing chunk is
+     * rolled back and stops the run.
+     */
+    public int upsertUsers(Collection<User> users) {
+        int upserted = 0;
+        int rowsPerChunk = Math.min(batchSize, MAX_BIND_PARAMETERS / 3);
+        Map<Integer, User> chunk = new LinkedHashMap<>();
+        int maxId = Integer.MIN_VALUE;
+        try (Connection connection = writeConnection()) {
+            boolean postgres = isPostgres(connection);
+            connection.setAutoCommit(false);
+            try (PreparedStatement full = connection.prepareStatement(upsertSql(postgres, rowsPerChunk))) {
+                Iterator<User> it = users.iterator();
+                while (it.hasNext()) {
+                    // ON CONFLICT cannot touch a row twice in one statement, and MERGE rejects it too.
+                    chunk.clear();
+                    while (chunk.size() < rowsPerChunk && it.hasNext()) {
+                        User user = it.next();
+                        chunk.put(user.getId(), user);
+                        maxId = Math.max(maxId, user.getId());
+                    }
+                    if (chunk.size() == rowsPerChunk) {
+                        upserted += bindUpsert(full, chunk.values());
+                    } else {
+                        try (PreparedStatement tail = connection.prepareStatement(upsertSql(postgres, chunk.size()))) {
+                            upserted += bindUpsert(tail, chunk.values());
+                        }
+                    }
+                    connection.commit();
+                }
+                if (upserted > 0) {
+                    advanceIdSequence(connection, postgres, maxId);
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            System.out.printf("[INFO] Upserted %d user(s).%n", upserted);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to upsert users: " + e.getMessage());
+        }
+        return upserted;
+    }
+
+    /**
+     * Deletes users by id, one statement and transaction per chunk of
+     * {@code batchSize} ids: {@code id = ANY(?)} with an array parameter on
+     * PostgreSQL, an {@code IN} list elsewhere. Returns the number of rows
+     * deleted; a failing chunk is rolled back and stops the run.
+     */
+    public int deleteUsers(int[] ids) {
+        int deleted = 0;
+        int idsPerChunk = Math.min(batchSize, MAX_BIND_PARAMETERS);
+        try (Connection connection = writeConnection()) {
+            boolean postgres = isPostgres(connection);
+            connection.setAutoCommit(false);
+            try {
+                for (int from = 0; from < ids.length; from += idsPerChunk) {
+                    int to = Math.min(ids.length, from + idsPerChunk);
+                    deleted += postgres ? deleteAny(connection, ids, from, to) : deleteIn(connection, ids, from, to);
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            System.out.printf("[INFO] Deleted %d user(s).%n", deleted);
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to delete users: " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static String upsertSql(boolean postgres, int rows) {
+        StringBuilder values = new StringBuilder("VALUES ");
+        for (int i = 0; i < rows; i++) {
+            values.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        if (postgres) {
+            return "INSERT INTO users (id, name, email) " + values
+                    + " ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email";
+        }
+        return "MERGE INTO users u USING (" + values + ") AS v (id, name, email) ON u.id = v.id"
+                + " WHEN MATCHED THEN UPDATE SET name = v.name, email = v.email"
+                + " WHEN NOT MATCHED THEN INSERT (id, name, email) VALUES (v.id, v.name, v.email)";
+    }
+
+    private static int bindUpsert(PreparedStatement stmt, Collection<User> chunk) throws SQLException {
+        int index = 1;
+        for (User user : chunk) {
+            stmt.setInt(index++, user.getId());
+            stmt.setString(index++, user.getName());
+            stmt.setString(index++, user.getEmail());
+        }
+        return stmt.executeUpdate();
+    }
+
+    /*
+     * Explicit ids bypass the SERIAL sequence. On PostgreSQL it is set to the
+     * larger of the table's largest id and its own next value, so it never
+     * moves backwards. Elsewhere the standard RESTART WITH is used, and only
+     * when the upsert wrote the table's largest id.
+     */
+    private static void advanceIdSequence(Connection connection, boolean postgres, int maxUpsertedId)
+            throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (postgres) {
+                String sql = "SELECT setval(pg_get_serial_sequence('users', 'id'), GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM users), nextval(pg_get_serial_sequence('users', 'id'))))";
+                stmt.execute(sql); // the result set is closed with the statement
+                return;
+            }
+            long maxId;
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM users")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            if (maxUpsertedId >= maxId) {
+                stmt.executeUpdate("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (maxId + 1));
+            }
+        }
+    }
+
+    private static int deleteAny(Connection connection, int[] ids, int from, int to) throws SQLException {
+        Integer[] chunk = new Integer[to - from];
+        for (int i = from; i < to; i++) {
+            chunk[i - from] = ids[i];
+        }
+        Array array = connection.createArrayOf("integer", chunk);
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM users WHERE id = ANY(?)")) {
+            stmt.setArray(1, array);
+            return stmt.executeUpdate();
+        } finally {
+            array.free();
+        }
+    }
+
+    private static int deleteIn(Connection connection, int[] ids, int from, int to) throws SQLException {
+        StringBuilder sql = new StringBuilder("DELETE FROM users WHERE id IN (");
+        for (int i = from; i < to; i++) {
+            sql.append(i == from ? "?" : ", ?");
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(sql.append(')').toString())) {
+            for (int i = from; i < to; i++) {
+                stmt.setInt(i - from + 1, ids[i]);
+            }
+            return stmt.executeUpdate();
+        }
+    }
+}
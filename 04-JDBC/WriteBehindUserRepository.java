@@ -0,0 +1,638 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * {@link UserRepository} whose {@code insertUser}/{@code updateUser}/
+ * {@code deleteUser} return as soon as the mutation is queued. A background
+ * thread writes the queue to the database in one batched transaction when
+ * {@code flushThreshold} mutations are pending or every
+ * {@code flushIntervalMillis}, whichever comes first.
+ *
+ * Mutations are written in the order they were queued, so a delete or an
+ * email change lands before a later insert that reuses the email. Updates of
+ * the same id are coalesced: only the latest one is written, at its own place
+ * in that order. A queued delete absorbs later updates of its id, since they
+ * could only have matched the deleted row.
+ *
+ * Every queued mutation is appended to a local spill file and fsynced before
+ * the call returns; after a crash the file is replayed when the repository is
+ * reopened, so acknowledged writes are never lost. The fsync is a group
+ * commit: one caller syncs, outside the queue lock, everything appended so
+ * far, while callers that arrive meanwhile append their records and wait for
+ * the next sync instead of each issuing their own. When {@code maxPending}
+ * mutations are waiting, callers block until a flush makes room.
+ *
+ * The bulk operations ({@code insertUsers}, {@code updateUsers},
+ * {@code upsertUsers}, {@code deleteUsers}) run directly against the
+ * database, but first flush everything queued before them, and fail without
+ * running if that cannot be written, so they never overtake earlier mutations.
+ *
+ * Each mutation carries a sequence number, and every flush commits the
+ * highest one it wrote to the {@code user_write_behind_checkpoint} table in
+ * the same transaction. Replaying the spill file therefore skips mutations
+ * that were committed just before a crash instead of inserting them twice.
+ * The checkpoint is keyed by the spill file's name, so each writer needs its
+ * own spill file.
+ *
+ * If a batch fails, its mutations are retried one transaction each. A
+ * mutation the database rejects outright (a constraint or data error, such as
+ * a duplicate email) is appended to a {@code .dead} file next to the spill
+ * file and dropped from the queue, so it cannot hold up the mutations behind
+ * it. Other errors, such as a lost connection, leave the rest queued for the
+ * next flush.
+ *
+ * Reads go straight to the database and do not see mutations still queued.
+ */
+class WriteBehindUserRepository extends UserRepository implements AutoCloseable {
+
+    private static final byte INSERT = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+
+    private static final String CREATE_CHECKPOINT = "CREATE TABLE IF NOT EXISTS user_write_behind_checkpoint ("
+            + "writer VARCHAR(255) PRIMARY KEY, flushed_seq BIGINT NOT NULL)";
+
+    private static final class Mutation {
+        final long seq;
+        final byte kind;
+        final int id;
+        final String name;
+        final String email;
+
+        Mutation(long seq, byte kind, int id, String name, String email) {
+            this.seq = seq;
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+            this.email = email;
+        }
+
+        @Override
+        public String toString() {
+            String op = kind == INSERT ? "INSERT" : kind == UPDATE ? "UPDATE" : "DELETE";
+            return seq + "\t" + op + "\t" + id + "\t" + name + "\t" + email;
+        }
+    }
+
+    private final Path spillFile;
+    private final Path deadLetterFile;
+    private final String writer;
+    private final int flushThreshold;
+    private final int maxPending;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private List<Mutation> inserts = new ArrayList<>();
+    private Map<Integer, Mutation> byId = new LinkedHashMap<>();
+    private long nextSeq = 1;
+    private FileOutputStream spillOut;
+    private DataOutputStream spill;
+    // Highest sequence number known to be durable in the spill file.
+    private long syncedSeq;
+    // Whether a caller is fsyncing the spill file outside the lock.
+    private boolean syncing;
+    private boolean closed;
+
+    // Only one flush at a time; held across the database round trip.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Written under flushLock.
+    private boolean checkpointReady;
+    private volatile long deadLetters;
+    private final ScheduledExecutorService flusher;
+
+    public WriteBehindUserRepository(PostgresDatabase database, Path spillFile,
+            int flushThreshold, long flushIntervalMillis, int maxPending) {
+        super(database);
+        if (flushThreshold <= 0 || maxPending < flushThreshold || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Require 0 < flushThreshold <= maxPending and a positive interval");
+        }
+        this.spillFile = spillFile;
+        this.deadLetterFile = spillFile.resolveSibling(spillFile.getFileName() + ".dead");
+        this.writer = spillFile.getFileName().toString();
+        this.flushThreshold = flushThreshold;
+        this.maxPending = maxPending;
+        lock.lock();
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open spill file " + spillFile, e);
+        } finally {
+            lock.unlock();
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // The row count is not known until the flush, so each queued mutation reports 1.
+
+    @Override
+    int doInsertUser(String name, String email) {
+        enqueue(INSERT, 0, name, email);
+        return 1;
+    }
+
+    @Override
+    int doUpdateUser(int id, String name, String email) {
+        enqueue(UPDATE, id, name, email);
+        return 1;
+    }
+
+    @Override
+    int doDeleteUser(int id) {
+        enqueue(DELETE, id, "", "");
+        return 1;
+    }
+
+    @Override
+    void doInsertUsers(Collection<User> users, List<Integer> ids) throws SQLException {
+        drainQueue();
+        super.doInsertUsers(users, ids);
+    }
+
+    @Override
+    void doUpdateUsers(Collection<User> users, IntConsumer committed) throws SQLException {
+        drainQueue();
+        super.doUpdateUsers(users, committed);
+    }
+
+    @Override
+    public int upsertUsers(Collection<User> users) {
+        try {
+            drainQueue();
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to upsert users: " + e.getMessage());
+            return 0;
+        }
+        return super.upsertUsers(users);
+    }
+
+    @Override
+    public int deleteUsers(int[] ids) {
+        try {
+            drainQueue();
+        } catch (SQLException e) {
+            System.err.println("[ERROR] Failed to delete users: " + e.getMessage());
+            return 0;
+        }
+        return super.deleteUsers(ids);
+    }
+
+    /** Number of mutations waiting to be written. */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pendingCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Mutations the database rejected and that were moved to {@link #getDeadLetterFile()}. */
+    public long getDeadLetterCount() {
+        return deadLetters;
+    }
+
+    /** Tab-separated log of rejected mutations: sequence, operation, id, name, email, error. */
+    public Path getDeadLetterFile() {
+        return deadLetterFile;
+    }
+
+    /**
+     * Writes everything queued so far in one transaction, falling back to one
+     * transaction per mutation if that fails. Mutations that could not be
+     * written stay queued (and spilled) and are retried on the next flush.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Mutation> batch;
+            lock.lock();
+            try {
+                if (pendingCount() == 0) {
+                    return;
+                }
+                batch = pending();
+                inserts = new ArrayList<>();
+                byId = new LinkedHashMap<>();
+            } finally {
+                lock.unlock();
+            }
+
+            int done = write(batch);
+
+            lock.lock();
+            try {
+                List<Mutation> arrived = pending();
+                inserts = new ArrayList<>();
+                byId = new LinkedHashMap<>();
+                for (Mutation m : batch.subList(done, batch.size())) {
+                    apply(m);
+                }
+                for (Mutation m : arrived) {
+                    apply(m);
+                }
+                if (done > 0) {
+                    // Only what is still queued needs to stay durable.
+                    rewriteSpill();
+                    notFull.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to compact spill file: " + e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Flushes what is queued, stops the background flusher and closes the spill file. */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+            while (syncing) {
+                synced.awaitUninterruptibly();
+            }
+            spill.flush();
+            spillOut.getFD().sync();
+            syncedSeq = nextSeq - 1;
+            synced.signalAll();
+            spill.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to close spill file: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        if (getPendingCount() > 0) {
+            System.err.printf("[WARN] %d user mutation(s) left in %s for the next start.%n",
+                    getPendingCount(), spillFile);
+        }
+    }
+
+    private void enqueue(byte kind, int id, String name, String email) {
+        boolean full;
+        lock.lock();
+        try {
+            while (!closed && pendingCount() >= maxPending) {
+                requestFlush();
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-behind repository is closed");
+            }
+            Mutation mutation = new Mutation(nextSeq++, kind, id, name, email);
+            append(spill, mutation);
+            // Queued before it is durable; if the fsync fails the caller gets the error,
+            // but a flush may still write the mutation.
+            apply(mutation);
+            full = pendingCount() >= flushThreshold;
+            awaitDurable(mutation.seq);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill user mutation", e);
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            requestFlush();
+        }
+    }
+
+    /*
+     * Group commit: returns once the spill file is durable through seq. If no
+     * sync is running, this caller becomes the syncer and fsyncs, outside the
+     * lock, everything appended so far; otherwise it waits for the running
+     * sync and checks again. Caller holds lock.
+     */
+    private void awaitDurable(long seq) throws IOException {
+        while (syncedSeq < seq) {
+            if (syncing) {
+                synced.awaitUninterruptibly();
+                continue;
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-behind repository is closed");
+            }
+            long through = nextSeq - 1;
+            FileOutputStream out = spillOut;
+            spill.flush();
+            syncing = true;
+            lock.unlock();
+            boolean done = false;
+            try {
+                out.getFD().sync();
+                done = true;
+            } finally {
+                lock.lock();
+                syncing = false;
+                if (done) {
+                    syncedSeq = Math.max(syncedSeq, through);
+                }
+                synced.signalAll();
+            }
+        }
+    }
+
+    /*
+     * Flushes every mutation queued before this call and fails if any of them
+     * is still queued afterwards, so a bulk operation cannot overtake them.
+     */
+    private void drainQueue() throws SQLException {
+        long through;
+        lock.lock();
+        try {
+            through = nextSeq - 1;
+        } finally {
+            lock.unlock();
+        }
+        flush();
+        lock.lock();
+        try {
+            long behind = pending().stream().filter(m -> m.seq <= through).count();
+            if (behind > 0) {
+                throw new SQLException(behind + " queued user mutation(s) could not be written;"
+                        + " not running the bulk operation ahead of them");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requestFlush() {
+        try {
+            flusher.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; close() performs the final flush.
+        }
+    }
+
+    private int pendingCount() {
+        return inserts.size() + byId.size();
+    }
+
+    // Pending mutations in the order they were queued. Caller holds lock.
+    private List<Mutation> pending() {
+        List<Mutation> all = new ArrayList<>(pendingCount());
+        all.addAll(inserts);
+        all.addAll(byId.values());
+        all.sort(Comparator.comparingLong(m -> m.seq));
+        return all;
+    }
+
+    private void apply(Mutation mutation) {
+        if (mutation.kind == INSERT) {
+            inserts.add(mutation);
+            return;
+        }
+        Mutation queued = byId.get(mutation.id);
+        if (queued != null && queued.kind == DELETE) {
+            // Ids are never reused, so anything after a delete of the id is a no-op.
+            return;
+        }
+        byId.put(mutation.id, mutation);
+    }
+
+    /**
+     * Writes {@code batch} (in sequence order) and returns how many of its
+     * leading mutations are settled: committed now or earlier, or dead-lettered.
+     */
+    private int write(List<Mutation> batch) {
+        int done = 0;
+        try (Connection connection = writeConnection()) {
+            long flushed = readCheckpoint(connection);
+            while (done < batch.size() && batch.get(done).seq <= flushed) {
+                done++; // committed before a crash, but still in the spill file
+            }
+            if (done == batch.size()) {
+                return done;
+            }
+            connection.setAutoCommit(false);
+            List<Mutation> todo = batch.subList(done, batch.size());
+            try {
+                execute(connection, todo);
+                saveCheckpoint(connection, batch.get(batch.size() - 1).seq);
+                connection.commit();
+                System.out.printf("[INFO] Flushed %d user mutation(s).%n", todo.size());
+                return batch.size();
+            } catch (SQLException e) {
+                connection.rollback();
+                System.err.println("[WARN] Batched flush failed, retrying mutations one by one: " + e.getMessage());
+            }
+            for (Mutation m : todo) {
+                try {
+                    execute(connection, List.of(m));
+                    saveCheckpoint(connection, m.seq);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (!isRejection(e)) {
+                        throw e;
+                    }
+                    // Record it before the checkpoint moves past it, so a crash can only duplicate the record.
+                    deadLetter(m, e);
+                    saveCheckpoint(connection, m.seq);
+                    connection.commit();
+                }
+                done++;
+            }
+            System.out.printf("[INFO] Flushed %d user mutation(s) one by one.%n", todo.size());
+        } catch (SQLException | IOException e) {
+            System.err.println("[ERROR] Failed to flush user mutations: " + e.getMessage());
+        }
+        return done;
+    }
+
+    /*
+     * Runs the mutations in sequence order. Consecutive mutations of the same
+     * kind go out as one JDBC batch; a change of kind executes the batch
+     * before it first.
+     */
+    private static void execute(Connection connection, List<Mutation> mutations) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO users (name, email) VALUES (?, ?)");
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE users SET name = ?, email = ? WHERE id = ?");
+                PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            PreparedStatement batched = null;
+            for (Mutation m : mutations) {
+                PreparedStatement stmt = m.kind == INSERT ? insert : m.kind == UPDATE ? update : delete;
+                if (batched != null && batched != stmt) {
+                    batched.executeBatch();
+                }
+                batched = stmt;
+                if (m.kind == INSERT) {
+                    insert.setString(1, m.name);
+                    insert.setString(2, m.email);
+                } else if (m.kind == UPDATE) {
+                    update.setString(1, m.name);
+                    update.setString(2, m.email);
+                    update.setInt(3, m.id);
+                } else {
+                    delete.setInt(1, m.id);
+                }
+                stmt.addBatch();
+            }
+            if (batched != null) {
+                batched.executeBatch();
+            }
+        }
+    }
+
+    // SQLSTATE class 22 (data exception) or 23 (integrity constraint violation): retrying cannot help.
+    private static boolean isRejection(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    private long readCheckpoint(Connection connection) throws SQLException {
+        if (!checkpointReady) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_CHECKPOINT);
+            }
+            checkpointReady = true;
+        }
+        String sql = "SELECT flushed_seq FROM user_write_behind_checkpoint WHERE writer = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, writer);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void saveCheckpoint(Connection connection, long seq) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE user_write_behind_checkpoint SET flushed_seq = ? WHERE writer = ?")) {
+            update.setLong(1, seq);
+            update.setString(2, writer);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO user_write_behind_checkpoint (writer, flushed_seq) VALUES (?, ?)")) {
+            insert.setString(1, writer);
+            insert.setLong(2, seq);
+            insert.executeUpdate();
+        }
+    }
+
+    private void deadLetter(Mutation m, SQLException cause) throws IOException {
+        String line = m + "\t" + cause.getMessage().replaceAll("\\s+", " ") + System.lineSeparator();
+        try (FileOutputStream out = new FileOutputStream(deadLetterFile.toFile(), true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        deadLetters++;
+        System.err.printf("[ERROR] User mutation %s rejected (%s); moved to %s.%n",
+                m, cause.getMessage(), deadLetterFile);
+    }
+
+    // Replays a spill file left by a previous run, then compacts it.
+    private void recover() throws IOException {
+        if (Files.exists(spillFile)) {
+            try (InputStream file = Files.newInputStream(spillFile);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+                nextSeq = in.readLong();
+                while (true) {
+                    Mutation mutation;
+                    try {
+                        mutation = new Mutation(in.readLong(), in.readByte(), in.readInt(), in.readUTF(), in.readUTF());
+                    } catch (EOFException e) {
+                        break; // end of file, or a record torn by a crash mid-write
+                    }
+                    nextSeq = Math.max(nextSeq, mutation.seq + 1);
+                    apply(mutation);
+                }
+            } catch (EOFException e) {
+                // Empty file: created but never written.
+            }
+            if (pendingCount() > 0) {
+                System.out.printf("[INFO] Recovered %d queued user mutation(s) from %s.%n",
+                        pendingCount(), spillFile);
+            }
+        }
+        rewriteSpill();
+    }
+
+    /*
+     * Replaces the spill file with exactly the pending mutations. Caller holds
+     * lock. The file starts with the next sequence number, so numbering never
+     * restarts below the database checkpoint even when the queue is empty.
+     * Everything appended so far is then durable, in the database or here.
+     */
+    private void rewriteSpill() throws IOException {
+        while (syncing) {
+            synced.awaitUninterruptibly();
+        }
+        Path temp = spillFile.resolveSibling(spillFile.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                DataOutputStream out = new DataOutputStream(file)) {
+            out.writeLong(nextSeq);
+            for (Mutation m : pending()) {
+                append(out, m);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        if (spill != null) {
+            spill.close();
+        }
+        Files.move(temp, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        spillOut = new FileOutputStream(spillFile.toFile(), true);
+        spill = new DataOutputStream(new BufferedOutputStream(spillOut));
+        syncedSeq = nextSeq - 1;
+        synced.signalAll();
+    }
+
+    private static void append(DataOutputStream out, Mutation m) throws IOException {
+        out.writeLong(m.seq);
+        out.writeByte(m.kind);
+        out.writeInt(m.id);
+        out.writeUTF(m.name);
+        out.writeUTF(m.email);
+    }
+}